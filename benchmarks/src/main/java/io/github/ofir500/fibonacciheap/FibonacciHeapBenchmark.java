@@ -0,0 +1,1131 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * FibonacciHeapBenchmark
+ * <p>
+ * JMH benchmarks of every FibonacciHeap operation over a range of heap sizes, and of the workloads and
+ * variants built on it. most benchmarks run an operation over a whole heap: the heap is built by a setup
+ * that isn't timed, and an invocation runs the operation size times. every invocation adds the number of
+ * heap operations it made to the Operations counter, which JMH reports as the ":ops" result of the
+ * benchmark - heap operations per ms in the default Throughput mode, and ns per heap operation with -bm avgt.
+ * the score of the benchmark itself is per invocation. latency runs a single operation per invocation
+ * instead, and JMH samples their times.
+ * <p>
+ * usage, from the root of the project: mvn -Pbench verify -Dbench.args="deleteMin -p size=100000", which runs
+ * org.openjdk.jmh.Main with the given arguments against the multi-release jar and writes the results to
+ * benchmarks/target/benchmark.csv. -prof gc adds the allocation
+ * (gc.alloc.rate.norm, bytes per invocation) and the number of collections to the results, and -t sets the
+ * number of threads of the concurrent benchmark, the number of processors by default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FibonacciHeapBenchmark {
+
+	/**
+	 * the number of heap operations made by the invocations of an iteration
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Operations {
+		public long ops;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			this.ops = 0;
+		}
+	}
+
+	/**
+	 * state of a benchmark that runs over size keys, from a random generator seeded by the size
+	 */
+	@State(Scope.Thread)
+	public static class Sized {
+		@Param({ "1000", "10000", "100000", "1000000", "10000000" })
+		public int size;
+
+		private Random rnd;
+
+		/**
+		 * the generator of the state, created on first use since JMH doesn't order the setups of a state
+		 * and its superclass
+		 */
+		Random rnd() {
+			if (this.rnd == null) {
+				this.rnd = new Random(this.size);
+			}
+			return this.rnd;
+		}
+	}
+
+	public static class Keys extends Sized {
+		int[] keys;
+		FibonacciHeap heap;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.keys = randomKeys(this.size, rnd());
+			this.heap = new FibonacciHeap();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			this.heap = null;
+		}
+	}
+
+	@Benchmark
+	public FibonacciHeap insert(Keys state, Operations ops) {
+		for (int key : state.keys) {
+			state.heap.insert(key);
+		}
+		ops.ops += state.keys.length;
+		return state.heap;
+	}
+
+	@Benchmark
+	public FibonacciHeap insertAll(Keys state, Operations ops) {
+		state.heap.insertAll(state.keys, 0, state.keys.length, false);
+		ops.ops += state.keys.length;
+		return state.heap;
+	}
+
+	@Benchmark
+	public FibonacciHeap insertAllCons(Keys state, Operations ops) {
+		state.heap.insertAll(state.keys, 0, state.keys.length, true);
+		ops.ops += state.keys.length;
+		return state.heap;
+	}
+
+	/**
+	 * builds a consolidated heap with fromArrayParallel in the common pool, the parallel alternative to
+	 * insertAllCons. the speedup depends on the number of processors
+	 */
+	@Benchmark
+	public FibonacciHeap fromArrayParallel(Keys state, Operations ops) {
+		ops.ops += state.keys.length;
+		return FibonacciHeap.fromArrayParallel(state.keys);
+	}
+
+	public static class Snapshot extends Sized {
+		byte[] snapshot;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			FibonacciHeap heap = new FibonacciHeap();
+			heap.insertAll(randomKeys(this.size, rnd()), 0, this.size, true);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(5 * this.size + 24);
+			heap.writeTo(out);
+			this.snapshot = out.toByteArray();
+		}
+	}
+
+	/**
+	 * restores a heap of size consolidated nodes from a snapshot in memory, the alternative to building it
+	 * again with insertAllCons
+	 */
+	@Benchmark
+	public FibonacciHeap restore(Snapshot state, Operations ops) throws IOException {
+		FibonacciHeap heap = FibonacciHeap.readFrom(new ByteArrayInputStream(state.snapshot));
+		ops.ops += heap.size();
+		return heap;
+	}
+
+	public static class Filled extends Sized {
+		FibonacciHeap heap;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.heap = new FibonacciHeap();
+			for (int key : randomKeys(this.size, rnd())) {
+				this.heap.insert(key);
+			}
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			this.heap = null;
+		}
+	}
+
+	@Benchmark
+	public void deleteMin(Filled state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		int count = heap.size();
+		for (int i = 0; i < count; i++) {
+			heap.deleteMin();
+		}
+		ops.ops += count;
+	}
+
+	/**
+	 * deletes all the nodes of the heap in batches of DELETE_MIN_BATCH with deleteMin(k, out)
+	 */
+	@Benchmark
+	public void deleteMinBatch(Filled state, Operations ops, Blackhole bh) {
+		FibonacciHeap heap = state.heap;
+		int[] out = new int[DELETE_MIN_BATCH];
+		while (!heap.empty()) {
+			ops.ops += heap.deleteMin(DELETE_MIN_BATCH, out);
+		}
+		bh.consume(out);
+	}
+
+	static final int DELETE_MIN_BATCH = 64;
+
+	public static class Mapped extends Sized {
+		MappedFibonacciHeap heap;
+
+		@Setup(Level.Invocation)
+		public void setup() throws IOException {
+			this.heap = MappedFibonacciHeap.createTemp();
+			for (int key : randomKeys(this.size, rnd())) {
+				this.heap.insert(key);
+			}
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws IOException {
+			this.heap.close();
+			this.heap = null;
+		}
+	}
+
+	/**
+	 * deletes all the nodes of a MappedFibonacciHeap one by one. its nodes are in a temporary file, so run with
+	 * a small -Xmx to see that the size of the Java heap doesn't depend on the size of the queue
+	 */
+	@Benchmark
+	public void mappedDeleteMin(Mapped state, Operations ops) {
+		MappedFibonacciHeap heap = state.heap;
+		int count = heap.size();
+		for (int i = 0; i < count; i++) {
+			heap.deleteMin();
+		}
+		ops.ops += count;
+	}
+
+	/**
+	 * a DurableFibonacciHeap in a temporary directory under the given sync policy. the ALWAYS policy forces
+	 * every operation to the disk, so the sizes are small
+	 */
+	@State(Scope.Thread)
+	public static class Durable {
+		@Param({ "ALWAYS", "BATCH", "NEVER" })
+		public DurableFibonacciHeap.SyncPolicy policy;
+
+		@Param({ "1000", "10000" })
+		public int size;
+
+		int[] keys;
+		Path directory;
+		DurableFibonacciHeap heap;
+		private Random rnd;
+
+		@Setup(Level.Trial)
+		public void seed() {
+			this.rnd = new Random(this.size);
+		}
+
+		@Setup(Level.Invocation)
+		public void setup() throws IOException {
+			this.keys = randomKeys(this.size, this.rnd);
+			this.directory = Files.createTempDirectory("durable");
+			this.heap = new DurableFibonacciHeap(this.directory, this.policy, DurableFibonacciHeap.DEFAULT_BATCH_SIZE,
+					DurableFibonacciHeap.DEFAULT_SNAPSHOT_INTERVAL);
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws IOException {
+			this.heap.close();
+			for (String name : new String[] { "heap.log", "heap.snapshot" }) {
+				Files.deleteIfExists(this.directory.resolve(name));
+			}
+			Files.delete(this.directory);
+			this.heap = null;
+		}
+	}
+
+	/**
+	 * inserts size random keys into a DurableFibonacciHeap and deletes them all with deleteMin
+	 */
+	@Benchmark
+	public void durable(Durable state, Operations ops) throws IOException {
+		DurableFibonacciHeap heap = state.heap;
+		for (int key : state.keys) {
+			heap.insert(key);
+		}
+		while (!heap.empty()) {
+			heap.deleteMin();
+		}
+		heap.sync();
+		ops.ops += 2L * state.keys.length;
+	}
+
+	/**
+	 * a heap that holds size consolidated keys and size random keys to insert into it, with or without the
+	 * node pool. without the pool every insert and deleteMin pair allocates a node and drops one, with it
+	 * the heap allocates nothing
+	 */
+	public static class Churn extends Sized {
+		private static final int POOL_CAPACITY = 1024;
+
+		@Param({ "false", "true" })
+		public boolean pooled;
+
+		FibonacciHeap heap;
+		int[] keys;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.heap = new FibonacciHeap(null);
+			this.heap.setNodePoolCapacity(this.pooled ? POOL_CAPACITY : 0);
+			this.heap.insertAll(randomKeys(this.size, rnd()), 0, this.size, true);
+			this.keys = randomKeys(this.size, rnd());
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			this.heap = null;
+		}
+	}
+
+	/**
+	 * insert and deleteMin pairs over a heap that holds size keys
+	 */
+	@Benchmark
+	public void churn(Churn state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		for (int key : state.keys) {
+			heap.insert(key);
+			heap.deleteMin();
+		}
+		ops.ops += 2L * state.keys.length;
+	}
+
+	/**
+	 * a consolidated heap and its nodes in random order
+	 */
+	public static class Consolidated extends Sized {
+		FibonacciHeap heap;
+		FibonacciHeap.HeapNode[] nodes;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.heap = new FibonacciHeap(null);
+			this.nodes = consolidatedHeap(this.heap, this.size, rnd());
+			prepare();
+		}
+
+		/**
+		 * prepares what the benchmark needs on top of the heap
+		 */
+		void prepare() {
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			this.heap = null;
+			this.nodes = null;
+		}
+	}
+
+	public static class Decreases extends Consolidated {
+		@Param({ "false", "true" })
+		public boolean checked; // whether the heap checks that every node is its own
+
+		int[] deltas;
+
+		@Override
+		void prepare() {
+			this.heap.setOwnershipCheck(this.checked);
+			this.deltas = new int[this.nodes.length];
+			for (int i = 0; i < this.nodes.length; i++) {
+				this.deltas[i] = rnd().nextInt(this.nodes[i].getKey() + 1);
+			}
+		}
+	}
+
+	@Benchmark
+	public void decreaseKey(Decreases state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		FibonacciHeap.HeapNode[] nodes = state.nodes;
+		for (int i = 0; i < nodes.length; i++) {
+			heap.decreaseKey(nodes[i], state.deltas[i]);
+		}
+		ops.ops += nodes.length;
+	}
+
+	@Benchmark
+	public void delete(Consolidated state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		for (FibonacciHeap.HeapNode node : state.nodes) {
+			heap.delete(node);
+		}
+		ops.ops += state.nodes.length;
+	}
+
+	/**
+	 * deletes every node by decreasing it to the minimum and calling deleteMin, which consolidates on every
+	 * delete, the alternative to delete
+	 */
+	@Benchmark
+	public void deleteViaDeleteMin(Consolidated state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		for (FibonacciHeap.HeapNode node : state.nodes) {
+			heap.decreaseKeyTo(node, Integer.MIN_VALUE);
+			heap.deleteMin();
+		}
+		ops.ops += state.nodes.length;
+	}
+
+	public static class Reschedules extends Consolidated {
+		int[] keys;
+
+		@Override
+		void prepare() {
+			this.keys = randomKeys(this.size, rnd());
+		}
+	}
+
+	/**
+	 * timer rescheduling: every timer is cancelled with delete and a new one is scheduled, so the heap stays
+	 * at its size
+	 */
+	@Benchmark
+	public void cancel(Reschedules state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		FibonacciHeap.HeapNode[] nodes = state.nodes;
+		for (int i = 0; i < nodes.length; i++) {
+			heap.delete(nodes[i]);
+			nodes[i] = heap.insert(state.keys[i]);
+		}
+		ops.ops += 2L * nodes.length;
+	}
+
+	/**
+	 * cancel where a timer is cancelled by a decrease to the minimum and a deleteMin
+	 */
+	@Benchmark
+	public void cancelViaDeleteMin(Reschedules state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		FibonacciHeap.HeapNode[] nodes = state.nodes;
+		for (int i = 0; i < nodes.length; i++) {
+			heap.decreaseKeyTo(nodes[i], Integer.MIN_VALUE);
+			heap.deleteMin();
+			nodes[i] = heap.insert(state.keys[i]);
+		}
+		ops.ops += 2L * nodes.length;
+	}
+
+	public static class Increases extends Consolidated {
+		int[] deltas;
+
+		@Override
+		void prepare() {
+			this.deltas = new int[this.nodes.length];
+			for (int i = 0; i < this.nodes.length; i++) {
+				this.deltas[i] = rnd().nextInt(Integer.MAX_VALUE - this.nodes[i].getKey());
+			}
+		}
+	}
+
+	/**
+	 * rescheduling: every node's key is pushed later by increaseKey
+	 */
+	@Benchmark
+	public void increaseKey(Increases state, Operations ops) {
+		FibonacciHeap heap = state.heap;
+		FibonacciHeap.HeapNode[] nodes = state.nodes;
+		for (int i = 0; i < nodes.length; i++) {
+			heap.increaseKey(nodes[i], state.deltas[i]);
+		}
+		ops.ops += nodes.length;
+	}
+
+	/**
+	 * a consolidated heap that the benchmarks only read
+	 */
+	public static class ReadOnly extends Sized {
+		FibonacciHeap heap;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.heap = new FibonacciHeap();
+			consolidatedHeap(this.heap, this.size, rnd());
+		}
+	}
+
+	/**
+	 * walks all of a consolidated heap in ascending order with sortedIterator, without changing the heap
+	 */
+	@Benchmark
+	public long sortedIterator(ReadOnly state, Operations ops) {
+		long sum = 0;
+		PrimitiveIterator.OfInt it = state.heap.sortedIterator();
+		while (it.hasNext()) {
+			sum += it.nextInt();
+		}
+		ops.ops += state.size;
+		return sum;
+	}
+
+	static final int TOP_K = 16;
+
+	/**
+	 * reads the first TOP_K keys of a consolidated heap with sortedIterator, size / TOP_K times
+	 */
+	@Benchmark
+	public long sortedTop16(ReadOnly state, Operations ops) {
+		long sum = 0;
+		int walks = Math.max(1, state.size / TOP_K);
+		for (int i = 0; i < walks; i++) {
+			PrimitiveIterator.OfInt it = state.heap.sortedIterator();
+			for (int j = 0; j < TOP_K && it.hasNext(); j++) {
+				sum += it.nextInt();
+			}
+		}
+		ops.ops += (long) walks * Math.min(TOP_K, state.size);
+		return sum;
+	}
+
+	/**
+	 * size / MELD_HEAP_SIZE heaps of MELD_HEAP_SIZE keys each
+	 */
+	public static class Melds extends Sized {
+		FibonacciHeap[] heaps;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.heaps = new FibonacciHeap[Math.max(this.size / MELD_HEAP_SIZE, 2)];
+			for (int i = 0; i < this.heaps.length; i++) {
+				this.heaps[i] = new FibonacciHeap();
+				for (int j = 0; j < MELD_HEAP_SIZE; j++) {
+					this.heaps[i].insert(rnd().nextInt(Integer.MAX_VALUE));
+				}
+			}
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			this.heaps = null;
+		}
+	}
+
+	static final int MELD_HEAP_SIZE = 8;
+
+	@Benchmark
+	public FibonacciHeap meld(Melds state, Operations ops) {
+		FibonacciHeap result = state.heaps[0];
+		for (int i = 1; i < state.heaps.length; i++) {
+			result.meld(state.heaps[i]);
+		}
+		ops.ops += state.heaps.length - 1;
+		return result;
+	}
+
+	static final int DEGREE = 4;
+	static final int MAX_WEIGHT = 1000;
+
+	/**
+	 * a random graph with size vertices and DEGREE out-edges per vertex, as arrays of edges
+	 */
+	public static class Graph extends Sized {
+		@Param({ "false", "true" })
+		public boolean lazy; // whether the heap runs with lazy decreaseKey
+
+		int[] edgeStart;
+		int[] edgeTarget;
+		int[] edgeWeight;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			int size = this.size;
+			this.edgeStart = new int[size + 1];
+			this.edgeTarget = new int[size * DEGREE];
+			this.edgeWeight = new int[size * DEGREE];
+			for (int v = 0; v < size; v++) {
+				this.edgeStart[v] = v * DEGREE;
+				// the first edge chains the vertices so they are all reachable
+				this.edgeTarget[v * DEGREE] = (v + 1) % size;
+				this.edgeWeight[v * DEGREE] = 1 + rnd().nextInt(MAX_WEIGHT);
+				for (int e = v * DEGREE + 1; e < (v + 1) * DEGREE; e++) {
+					this.edgeTarget[e] = rnd().nextInt(size);
+					this.edgeWeight[e] = 1 + rnd().nextInt(MAX_WEIGHT);
+				}
+			}
+			this.edgeStart[size] = size * DEGREE;
+		}
+	}
+
+	/**
+	 * dijkstra's algorithm over the graph. every insert, decreaseKey and deleteMin is counted as an operation.
+	 * nodes carry no payload, so the vertex of the minimum is looked up in a map like callers of the heap do
+	 */
+	@Benchmark
+	public void dijkstra(Graph state, Operations ops) {
+		int n = state.edgeStart.length - 1;
+		FibonacciHeap heap = new FibonacciHeap();
+		heap.setLazyDecreaseKey(state.lazy);
+		FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[n];
+		boolean[] done = new boolean[n];
+		Map<FibonacciHeap.HeapNode, Integer> vertices = new HashMap<>();
+		long count = 0;
+
+		nodes[0] = heap.insert(0);
+		vertices.put(nodes[0], 0);
+		count++;
+		while (!heap.empty()) {
+			FibonacciHeap.HeapNode min = heap.findMin();
+			int u = vertices.get(min);
+			int dist = min.getKey();
+			heap.deleteMin();
+			count++;
+			done[u] = true;
+			for (int e = state.edgeStart[u]; e < state.edgeStart[u + 1]; e++) {
+				int v = state.edgeTarget[e];
+				if (done[v]) {
+					continue;
+				}
+				int newDist = dist + state.edgeWeight[e];
+				if (nodes[v] == null) {
+					nodes[v] = heap.insert(newDist);
+					vertices.put(nodes[v], v);
+					count++;
+				} else if (newDist < nodes[v].getKey()) {
+					heap.decreaseKey(nodes[v], nodes[v].getKey() - newDist);
+					count++;
+				}
+			}
+		}
+		ops.ops += count;
+	}
+
+	/**
+	 * the same workloads over FibonacciHeap, PairingHeap or RankPairingHeap, driven through MeldableHeap, so
+	 * the implementations can be compared per workload. every heap operation is counted
+	 */
+	public static class Meldable extends Sized {
+		@Param({ "fibonacci", "pairing", "rankPairing" })
+		public String heapType;
+
+		int[] keys;
+		CsrGraph graph;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.keys = randomKeys(this.size, rnd());
+			int[] from = new int[this.size * DEGREE];
+			int[] to = new int[this.size * DEGREE];
+			int[] weights = new int[this.size * DEGREE];
+			for (int e = 0; e < from.length; e++) {
+				from[e] = e / DEGREE;
+				// the first edge of every vertex chains the vertices so they are all reachable
+				to[e] = e % DEGREE == 0 ? (from[e] + 1) % this.size : rnd().nextInt(this.size);
+				weights[e] = 1 + rnd().nextInt(MAX_WEIGHT);
+			}
+			this.graph = CsrGraph.fromEdges(this.size, from, to, weights);
+		}
+
+		MeldableHeap<?, ?> newHeap() {
+			if (this.heapType.equals("pairing")) {
+				return new PairingHeap();
+			} else if (this.heapType.equals("rankPairing")) {
+				return new RankPairingHeap();
+			}
+			return new FibonacciHeap(null);
+		}
+	}
+
+	/**
+	 * inserts size random keys and deletes them in order
+	 */
+	@Benchmark
+	public void meldableSort(Meldable state, Operations ops) {
+		ops.ops += sort(state.newHeap(), state.keys);
+	}
+
+	private static <N extends MeldableHeap.Node, H extends MeldableHeap<N, H>> long sort(MeldableHeap<N, H> heap,
+			int[] keys) {
+		for (int key : keys) {
+			heap.insert(key);
+		}
+		while (!heap.empty()) {
+			heap.deleteMin();
+		}
+		return 2L * keys.length;
+	}
+
+	/**
+	 * shortest paths from vertex 0 over a random graph with size vertices and DEGREE out-edges per vertex
+	 */
+	@Benchmark
+	public void meldableDijkstra(Meldable state, Operations ops) {
+		ops.ops += dijkstra(state.newHeap(), state.graph);
+	}
+
+	private static <N extends MeldableHeap.Node, H extends MeldableHeap<N, H>> long dijkstra(MeldableHeap<N, H> heap,
+			CsrGraph graph) {
+		int n = graph.vertices();
+		List<N> nodes = new ArrayList<>(Collections.nCopies(n, null));
+		boolean[] done = new boolean[n];
+		Map<N, Integer> vertices = new IdentityHashMap<>();
+		long count = 0;
+
+		N source = heap.insert(0);
+		nodes.set(0, source);
+		vertices.put(source, 0);
+		count++;
+		while (!heap.empty()) {
+			N min = heap.findMin();
+			int u = vertices.remove(min);
+			int dist = min.getKey();
+			heap.deleteMin();
+			count++;
+			done[u] = true;
+			for (int e = graph.firstEdge(u); e < graph.firstEdge(u + 1); e++) {
+				int v = graph.target(e);
+				if (done[v]) {
+					continue;
+				}
+				int newDist = dist + (int) graph.weight(e);
+				N node = nodes.get(v);
+				if (node == null) {
+					node = heap.insert(newDist);
+					nodes.set(v, node);
+					vertices.put(node, v);
+					count++;
+				} else if (newDist < node.getKey()) {
+					heap.decreaseKey(node, node.getKey() - newDist);
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * a heap that starts with size consolidated keys, in the default mode or with incremental consolidation,
+	 * and goes through bursts of size / BURSTS inserts, each followed by as many deleteMins, one operation per
+	 * invocation. the first deleteMin after a burst consolidates the whole burst in the default mode
+	 */
+	@State(Scope.Thread)
+	public static class Bursts {
+		private static final int BURSTS = 10;
+
+		@Param({ "1000", "10000", "100000", "1000000" })
+		public int size;
+
+		@Param({ "false", "true" })
+		public boolean incremental;
+
+		private FibonacciHeap heap;
+		private int[] keys;
+		private int burst;
+		private int step; // the position in the current burst and its deleteMins
+		private int next; // the index of the next key to insert
+
+		@Setup(Level.Trial)
+		public void setup() {
+			Random rnd = new Random(this.size);
+			this.heap = new FibonacciHeap(null);
+			this.heap.insertAll(randomKeys(this.size, rnd), 0, this.size, true);
+			this.heap.setIncrementalConsolidation(this.incremental);
+			this.keys = randomKeys(this.size, rnd);
+			this.burst = Math.max(1, this.size / BURSTS);
+		}
+
+		int nextOperation() {
+			if (this.step < this.burst) {
+				this.heap.insert(this.keys[this.next]);
+				this.next = (this.next + 1) % this.keys.length;
+			} else {
+				this.heap.deleteMin();
+			}
+			this.step = (this.step + 1) % (2 * this.burst);
+			return this.heap.size();
+		}
+	}
+
+	/**
+	 * samples the time of every insert and deleteMin of the bursts, so JMH reports their distribution, p99,
+	 * p99.99 and the maximum, rather than the mean over the bursts
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int latency(Bursts state) {
+		return state.nextOperation();
+	}
+
+	/**
+	 * GraphSearch over a random undirected graph in CSR form with size vertices and DEGREE out-edges per
+	 * vertex, with int or double weights. every edge scanned is counted as an operation, so size 1000000 runs
+	 * a graph of 4M edges
+	 */
+	public static class Csr extends Sized {
+		@Param({ "false", "true" })
+		public boolean doubleWeights;
+
+		GraphSearch search;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			int size = this.size;
+			// half of the edges chain the vertices so they are all reachable, the rest are random
+			int[] from = new int[size * DEGREE];
+			int[] to = new int[size * DEGREE];
+			for (int v = 0; v < size; v++) {
+				int e = v * DEGREE;
+				from[e] = to[e + 1] = v;
+				to[e] = from[e + 1] = (v + 1) % size;
+				from[e + 2] = to[e + 3] = v;
+				to[e + 2] = from[e + 3] = rnd().nextInt(size);
+			}
+			CsrGraph graph;
+			if (this.doubleWeights) {
+				double[] weights = new double[from.length];
+				for (int e = 0; e < from.length; e += 2) {
+					weights[e] = weights[e + 1] = rnd().nextDouble();
+				}
+				graph = CsrGraph.fromEdges(size, from, to, weights);
+			} else {
+				int[] weights = new int[from.length];
+				for (int e = 0; e < from.length; e += 2) {
+					weights[e] = weights[e + 1] = 1 + rnd().nextInt(MAX_WEIGHT);
+				}
+				graph = CsrGraph.fromEdges(size, from, to, weights);
+			}
+			this.search = new GraphSearch(graph);
+		}
+	}
+
+	/**
+	 * shortest paths from vertex 0
+	 */
+	@Benchmark
+	public int csrDijkstra(Csr state, Operations ops) {
+		ops.ops += state.search.graph().edges();
+		return state.search.shortestPaths(0);
+	}
+
+	/**
+	 * a minimum spanning forest
+	 */
+	@Benchmark
+	public int csrPrim(Csr state, Operations ops) {
+		ops.ops += state.search.graph().edges();
+		return state.search.minimumSpanningForest();
+	}
+
+	public static class Chain extends Sized {
+		FibonacciHeap heap;
+		FibonacciHeap.HeapNode bottom;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.heap = new FibonacciHeap();
+			this.bottom = markedChain(this.heap, this.size);
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			this.heap = null;
+			this.bottom = null;
+		}
+	}
+
+	/**
+	 * a single decreaseKey at the bottom of a chain of size marked nodes, which cascades up the whole chain.
+	 * every cut is counted as an operation
+	 */
+	@Benchmark
+	public void chainCut(Chain state, Operations ops) {
+		long cutsBefore = state.heap.metrics().cuts();
+		state.heap.decreaseKey(state.bottom, state.bottom.getKey());
+		ops.ops += state.heap.metrics().cuts() - cutsBefore;
+	}
+
+	/**
+	 * a heap holding a chain of size marked nodes. the output of a chain grows with the square of its length,
+	 * so the sizes are small
+	 */
+	@State(Scope.Thread)
+	public static class PrintedChain {
+		@Param({ "1000", "10000" })
+		public int size;
+
+		FibonacciHeap heap;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.heap = new FibonacciHeap();
+			markedChain(this.heap, this.size);
+		}
+	}
+
+	/**
+	 * prints the chain. every printed node is counted as an operation
+	 */
+	@Benchmark
+	public long chainPrint(PrintedChain state, Operations ops) throws IOException {
+		CountingAppendable out = new CountingAppendable();
+		state.heap.print(out);
+		ops.ops += state.heap.size();
+		return out.count;
+	}
+
+	/**
+	 * an Appendable that drops what is written to it and only counts the characters
+	 */
+	static class CountingAppendable implements Appendable {
+		long count;
+
+		@Override
+		public Appendable append(CharSequence csq) {
+			this.count += csq.length();
+			return this;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) {
+			this.count += end - start;
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) {
+			this.count++;
+			return this;
+		}
+	}
+
+	/**
+	 * a priority queue shared by the threads of the concurrent benchmark
+	 */
+	interface SharedQueue {
+		void insert(int key);
+
+		void deleteMin();
+	}
+
+	/**
+	 * a queue pre-filled with size keys, shared by all the threads: a ConcurrentFibonacciHeap, a
+	 * ShardedFibonacciHeap with exact or relaxed deleteMin, a FibonacciHeap behind a single lock, or a
+	 * PriorityBlockingQueue
+	 */
+	@State(Scope.Benchmark)
+	public static class Shared {
+		@Param({ "combining", "sharded", "relaxed", "locked", "pbq" })
+		public String queueType;
+
+		@Param({ "1000", "100000", "1000000" })
+		public int size;
+
+		SharedQueue queue;
+
+		@Setup(Level.Trial)
+		public void setup(BenchmarkParams params) {
+			this.queue = createQueue(params.getThreads());
+			for (int key : randomKeys(this.size, new Random(this.size))) {
+				this.queue.insert(key);
+			}
+		}
+
+		private SharedQueue createQueue(int threads) {
+			switch (this.queueType) {
+			case "combining":
+				ConcurrentFibonacciHeap combining = new ConcurrentFibonacciHeap();
+				return new SharedQueue() {
+					public void insert(int key) {
+						combining.insert(key);
+					}
+
+					public void deleteMin() {
+						combining.deleteMin();
+					}
+				};
+			case "sharded":
+			case "relaxed":
+				// two shards per thread, as MultiQueue suggests for the relaxed mode
+				ShardedFibonacciHeap sharded = new ShardedFibonacciHeap(2 * threads);
+				boolean relaxed = this.queueType.equals("relaxed");
+				return new SharedQueue() {
+					public void insert(int key) {
+						sharded.insert(key);
+					}
+
+					public void deleteMin() {
+						if (relaxed) {
+							sharded.deleteMinRelaxed();
+						} else {
+							sharded.deleteMin();
+						}
+					}
+				};
+			case "locked":
+				FibonacciHeap locked = new FibonacciHeap();
+				return new SharedQueue() {
+					public synchronized void insert(int key) {
+						locked.insert(key);
+					}
+
+					public synchronized void deleteMin() {
+						locked.deleteMin();
+					}
+				};
+			default:
+				PriorityBlockingQueue<Integer> queue = new PriorityBlockingQueue<>();
+				return new SharedQueue() {
+					public void insert(int key) {
+						queue.add(key);
+					}
+
+					public void deleteMin() {
+						queue.poll();
+					}
+				};
+			}
+		}
+	}
+
+	/**
+	 * the keys a thread inserts into the shared queue
+	 */
+	@State(Scope.Thread)
+	public static class ThreadKeys {
+		private static final int COUNT = 1 << 16;
+
+		int[] keys;
+		int next;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.keys = randomKeys(COUNT, new Random(Thread.currentThread().getId()));
+		}
+
+		int nextKey() {
+			int key = this.keys[this.next];
+			this.next = (this.next + 1) & (COUNT - 1);
+			return key;
+		}
+	}
+
+	/**
+	 * every thread alternates between insert and deleteMin on the shared queue, so it stays at its size.
+	 * the benchmark runs with as many threads as processors, -t sets another number
+	 */
+	@Benchmark
+	@Threads(Threads.MAX)
+	@OperationsPerInvocation(2)
+	public void concurrentMixed(Shared shared, ThreadKeys keys) {
+		shared.queue.insert(keys.nextKey());
+		shared.queue.deleteMin();
+	}
+
+	static int[] randomKeys(int size, Random rnd) {
+		int[] keys = new int[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = rnd.nextInt(Integer.MAX_VALUE);
+		}
+		return keys;
+	}
+
+	/**
+	 * fills the heap with random keys and runs a single deleteMin so the heap holds consolidated trees
+	 * rather than a list of roots. returns the nodes left in the heap in random order
+	 */
+	static FibonacciHeap.HeapNode[] consolidatedHeap(FibonacciHeap heap, int size, Random rnd) {
+		FibonacciHeap.HeapNode[] inserted = new FibonacciHeap.HeapNode[size + 1];
+		for (int i = 0; i <= size; i++) {
+			inserted[i] = heap.insert(rnd.nextInt(Integer.MAX_VALUE));
+		}
+		FibonacciHeap.HeapNode min = heap.findMin();
+		heap.deleteMin();
+
+		FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[size];
+		int n = 0;
+		for (FibonacciHeap.HeapNode node : inserted) {
+			if (node != min) {
+				nodes[n++] = node;
+			}
+		}
+		for (int i = nodes.length - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1);
+			FibonacciHeap.HeapNode tmp = nodes[i];
+			nodes[i] = nodes[j];
+			nodes[j] = tmp;
+		}
+		return nodes;
+	}
+
+	/**
+	 * builds a heap holding a single tree that contains a chain of length marked nodes, each the only child
+	 * of the one above it, and returns the bottom of the chain.
+	 * every step inserts five keys smaller than the root, so that after the first deleteMin they are linked
+	 * on top of the tree as its new root, then deletes the nodes it doesn't need and cuts the leaf of the
+	 * old root, which marks it
+	 */
+	static FibonacciHeap.HeapNode markedChain(FibonacciHeap heap, int length) {
+		int key = 5 * length + 20;
+		heap.insert(key - 5);
+		heap.insert(key - 4);
+		FibonacciHeap.HeapNode leaf = heap.insert(key - 3);
+		FibonacciHeap.HeapNode bottom = heap.insert(key - 2);
+		FibonacciHeap.HeapNode extra = heap.insert(key - 1);
+		heap.deleteMin();
+		heap.delete(extra);
+
+		for (int i = 0; i < length; i++) {
+			key -= 5;
+			heap.insert(key - 5);
+			heap.insert(key - 4);
+			FibonacciHeap.HeapNode newLeaf = heap.insert(key - 3);
+			FibonacciHeap.HeapNode extra1 = heap.insert(key - 2);
+			FibonacciHeap.HeapNode extra2 = heap.insert(key - 1);
+			heap.deleteMin();
+			heap.delete(extra1);
+			heap.delete(extra2);
+			heap.delete(leaf);
+			leaf = newLeaf;
+		}
+		return bottom;
+	}
+}
@@ -0,0 +1,677 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * ArrayFibonacciHeap
+ * <p>
+ * The fibonacci heap structure shared by IntFibonacciHeap, LongFibonacciHeap and DoubleFibonacciHeap, which
+ * keep their nodes in parallel primitive arrays instead of HeapNode objects, and by MappedFibonacciHeap and
+ * KeyedFibonacciHeap. a node is addressed by the int
+ * handle returned from insert. slots of deleted nodes are kept in a free list and reused by later insertions,
+ * so once the arrays reached their working size no operation allocates.
+ * <p>
+ * keys are stored as longs whose signed order is the order of the subclass' keys, so linking, cutting and
+ * consolidating is the same code for every key type and needs no virtual comparisons. only the nodes of a
+ * KeyedFibonacciHeap are ordered by the keys of their entries instead.
+ * <p>
+ * lists of siblings are circular and have no sentinel - the root list is entered through min,
+ * and a child list through the child field of its parent. the "no node" handle NONE takes the place
+ * of both null and the sentinels of FibonacciHeap.
+ * <p>
+ * the fields of the nodes are only read and written through the slot accessors at the end of this class,
+ * which use the arrays, or the memory mapped file of a MappedFibonacciHeap. the accessors aren't virtual,
+ * so sharing this code doesn't cost the array heaps a call per field.
+ */
+public abstract class ArrayFibonacciHeap {
+
+	/**
+	 * handle that stands for "no node"
+	 */
+	public static final int NONE = -1;
+
+	static final int DEFAULT_CAPACITY = 16;
+	private static final int FREE = -2; // parent value of a slot that is in the free list
+
+	private long[] key;
+	private int[] parent;
+	private int[] left;
+	private int[] right;
+	private int[] child;
+	private int[] rank;
+	private boolean[] isMarked;
+	private final MappedFibonacciHeap.Slots slots; // null when the nodes are in the arrays
+	private final KeyedFibonacciHeap.Entries entries; // null when the nodes are ordered by their stored keys
+
+	private int[] treesByRank; // used by consolidate, kept between calls
+
+	private int min;
+	private int size;
+	private int trees;
+	private int marked;
+	private int used; // number of slots ever handed out
+	private int freeList; // first free slot, free slots are chained through right
+
+	ArrayFibonacciHeap(int initialCapacity) {
+		this(Math.max(initialCapacity, 1), null, null);
+	}
+
+	/**
+	 * creates an empty heap whose nodes are in the given slots of a mapped file
+	 */
+	ArrayFibonacciHeap(MappedFibonacciHeap.Slots slots) {
+		this(0, slots, null);
+	}
+
+	/**
+	 * creates an empty heap whose nodes are ordered by the keys of the given entries
+	 */
+	ArrayFibonacciHeap(KeyedFibonacciHeap.Entries entries) {
+		this(0, null, entries);
+	}
+
+	private ArrayFibonacciHeap(int capacity, MappedFibonacciHeap.Slots slots, KeyedFibonacciHeap.Entries entries) {
+		this.slots = slots;
+		this.entries = entries;
+		this.key = new long[capacity];
+		this.parent = new int[capacity];
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.child = new int[capacity];
+		this.rank = new int[capacity];
+		this.isMarked = new boolean[capacity];
+		this.treesByRank = new int[0];
+		reset();
+	}
+
+	/**
+	 * removes all the nodes from the heap. the arrays, or the mapped chunks, are kept for reuse
+	 */
+	public void clear() {
+		reset();
+	}
+
+	private void reset() {
+		if (this.entries != null) {
+			this.entries.clear(0, this.used);
+		}
+		this.min = NONE;
+		this.size = 0;
+		this.trees = 0;
+		this.marked = 0;
+		this.used = 0;
+		this.freeList = NONE;
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Return the number of elements in the heap
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * returns true if and only if the handle belongs to a node that is currently in the heap
+	 */
+	public boolean contains(int node) {
+		return node >= 0 && node < this.used && parent(node) != FREE;
+	}
+
+	/**
+	 * returns the stored key of the given node
+	 */
+	final long storedKey(int node) {
+		return key(node);
+	}
+
+	/**
+	 * Creates a node which contains the given stored key, inserts it into the heap and returns its handle.
+	 */
+	final int insertKey(long key) {
+		int node = allocate();
+		insertKeyAt(node, key);
+		return node;
+	}
+
+	/**
+	 * inserts the free slot node into the heap as a node which contains the given stored key
+	 */
+	final void insertKeyAt(int node, long key) {
+		setKey(node, key);
+		setParent(node, NONE);
+		setChild(node, NONE);
+		setRank(node, 0);
+		setMarked(node, false);
+		addRoot(node);
+		if (less(node, this.min)) {
+			this.min = node;
+		}
+		this.size++;
+	}
+
+	/**
+	 * hands out the first count slots at once as free slots, for a heap whose caller chooses the handles
+	 * and inserts them with insertKeyAt. the free list isn't used by such a heap
+	 */
+	final void reserve(int count) {
+		ensureCapacity(count);
+		for (int node = this.used; node < count; node++) {
+			setParent(node, FREE);
+		}
+		this.used = count;
+	}
+
+	/**
+	 * frees the slots of all the nodes in the heap and empties it, in time linear in its size.
+	 * unlike clear, the slots that were handed out stay handed out
+	 */
+	final void removeAll() {
+		int x = this.min;
+		while (x != NONE) {
+			// move the children of x to the list that is being freed, right after x
+			int first = child(x);
+			if (first != NONE) {
+				splice(x, first);
+				setChild(x, NONE);
+			}
+			int next = right(x);
+			unlink(x);
+			setParent(x, FREE);
+			x = next == x ? NONE : next;
+		}
+		this.min = NONE;
+		this.size = 0;
+		this.trees = 0;
+		this.marked = 0;
+	}
+
+	/**
+	 * Return the handle of the node whose key is minimal, or NONE if the heap is empty.
+	 */
+	public int findMin() {
+		return this.min;
+	}
+
+	/**
+	 * Delete the node containing the minimum key.
+	 */
+	public void deleteMin() {
+		int z = this.min;
+		if (z == NONE) {
+			// heap is empty, no action needed
+			return;
+		}
+
+		// make a root out of each of the minimum node's children
+		int first = child(z);
+		if (first != NONE) {
+			int x = first;
+			do {
+				setParent(x, NONE);
+				unmark(x);
+				this.trees++;
+				x = right(x);
+			} while (x != first);
+			splice(z, first);
+			setChild(z, NONE);
+		}
+
+		// remove the minimum from the root list, any other root will do as the entry point
+		int next = right(z);
+		unlink(z);
+		this.trees--;
+		this.size--;
+		release(z);
+		if (next == z) {
+			this.min = NONE;
+		} else {
+			this.min = next;
+			consolidate();
+		}
+	}
+
+	/**
+	 * consolidates the root list by linking roots of equal degree until at most one root remains of each degree.
+	 * the rank table is kept between calls and only grows when a higher rank shows up
+	 */
+	private void consolidate() {
+		int[] table = this.treesByRank;
+		int maxRank = -1;
+		int count = this.trees;
+		int w = this.min;
+
+		for (int i = 0; i < count; i++) {
+			int x = w;
+			w = right(w);
+			int r = rank(x);
+			while (true) {
+				if (r >= table.length) {
+					table = growRankTable(r + 1);
+				}
+				int y = table[r];
+				if (y == NONE) {
+					break;
+				}
+				table[r] = NONE;
+				if (less(y, x)) {
+					int tmp = x;
+					x = y;
+					y = tmp;
+				}
+				link(y, x);
+				r++;
+			}
+			table[r] = x;
+			if (r > maxRank) {
+				maxRank = r;
+			}
+		}
+
+		// rebuild the root list from the table, clearing it for the next call
+		this.min = NONE;
+		for (int r = 0; r <= maxRank; r++) {
+			int x = table[r];
+			if (x != NONE) {
+				table[r] = NONE;
+				if (this.min == NONE) {
+					setLeft(x, x);
+					setRight(x, x);
+					this.min = x;
+				} else {
+					insertAfter(this.min, x);
+					if (less(x, this.min)) {
+						this.min = x;
+					}
+				}
+			}
+		}
+	}
+
+	private int[] growRankTable(int minLength) {
+		int oldLength = this.treesByRank.length;
+		int[] table = Arrays.copyOf(this.treesByRank, Math.max(minLength, 2 * oldLength));
+		Arrays.fill(table, oldLength, table.length, NONE);
+		this.treesByRank = table;
+		return table;
+	}
+
+	/**
+	 * makes root y a child of root x. x's key must not be bigger than y's key
+	 */
+	private void link(int y, int x) {
+		unlink(y);
+		setParent(y, x);
+		int first = child(x);
+		if (first == NONE) {
+			setLeft(y, y);
+			setRight(y, y);
+			setChild(x, y);
+		} else {
+			insertAfter(first, y);
+		}
+		setRank(x, rank(x) + 1);
+		this.trees--;
+		unmark(y);
+	}
+
+	/**
+	 * Meld the heap with heap2, which holds the same type of keys.
+	 * the nodes of heap2 are copied into this heap and heap2 is left empty. a handle h of heap2
+	 * refers to node h + offset of this heap, where offset is the returned value
+	 */
+	final int meldHeap(ArrayFibonacciHeap heap2) {
+		if (heap2 == null || heap2 == this) {
+			return 0;
+		}
+		int offset = this.used;
+		int count = heap2.used;
+		ensureCapacity(offset + count);
+
+		for (int i = 0; i < count; i++) {
+			int node = offset + i;
+			if (heap2.parent(i) == FREE) {
+				release(node);
+				continue;
+			}
+			setKey(node, heap2.key(i));
+			setParent(node, shift(heap2.parent(i), offset));
+			setLeft(node, heap2.left(i) + offset);
+			setRight(node, heap2.right(i) + offset);
+			setChild(node, shift(heap2.child(i), offset));
+			setRank(node, heap2.rank(i));
+			setMarked(node, heap2.isMarked(i));
+			if (this.entries != null) {
+				this.entries.set(node, heap2.entries.take(i));
+			}
+		}
+		this.used = offset + count;
+
+		if (heap2.min != NONE) {
+			int otherMin = heap2.min + offset;
+			if (this.min == NONE) {
+				this.min = otherMin;
+			} else {
+				splice(this.min, otherMin);
+				if (less(otherMin, this.min)) {
+					this.min = otherMin;
+				}
+			}
+		}
+		this.size += heap2.size;
+		this.trees += heap2.trees;
+		this.marked += heap2.marked;
+		heap2.clear();
+		return offset;
+	}
+
+	private static int shift(int node, int offset) {
+		return node == NONE ? NONE : node + offset;
+	}
+
+	/**
+	 * Deletes the node x from the heap.
+	 */
+	public void delete(int x) {
+		int parent = parent(x);
+		if (parent != NONE) {
+			cut(x, parent);
+			cascadingCut(parent);
+		}
+		// x is now a root, so deleteMin can remove it as if it was the minimum
+		this.min = x;
+		deleteMin();
+	}
+
+	/**
+	 * The function sets the stored key of the node x to a key that is not bigger than its current key.
+	 * pre-condition: the node is in the heap
+	 */
+	final void decreaseStoredKey(int x, long key) {
+		setKey(x, key);
+		keyDecreased(x);
+	}
+
+	/**
+	 * restores the heap rule after the key of the node x was decreased
+	 */
+	final void keyDecreased(int x) {
+		int parent = parent(x);
+		if (parent != NONE && less(x, parent)) {
+			// if the heap rule is broken, cut x from its parent
+			cut(x, parent);
+			// mark the parent or continue cutting if parent is already marked
+			cascadingCut(parent);
+		}
+
+		// update the minimum if necessary
+		if (less(x, this.min)) {
+			this.min = x;
+		}
+	}
+
+	/**
+	 * removes a node from its parent's children list,
+	 * and adds it as a root in the root list
+	 */
+	private void cut(int node, int parent) {
+		if (right(node) == node) {
+			setChild(parent, NONE);
+		} else {
+			if (child(parent) == node) {
+				setChild(parent, right(node));
+			}
+			unlink(node);
+		}
+		setRank(parent, rank(parent) - 1);
+		setParent(node, NONE);
+		unmark(node);
+		addRoot(node);
+	}
+
+	/**
+	 * walks up from a node that one of its children was cut from it, cutting marked nodes
+	 * until reaching a root or an unmarked node, which gets marked
+	 */
+	private void cascadingCut(int node) {
+		int parent = parent(node);
+		while (parent != NONE) {
+			if (!isMarked(node)) {
+				setMarked(node, true);
+				this.marked++;
+				return;
+			}
+			cut(node, parent);
+			node = parent;
+			parent = parent(node);
+		}
+	}
+
+	/**
+	 * This function returns the current potential of the heap, which is:
+	 * Potential = #trees + 2*#marked
+	 */
+	public int potential() {
+		return this.trees + 2 * this.marked;
+	}
+
+	/**
+	 * Return a counters array, where the value of the i-th entry is the number
+	 * of trees of order i in the heap.
+	 */
+	public int[] countersRep() {
+		if (this.min == NONE) {
+			return new int[0];
+		}
+		int maxRank = 0;
+		int x = this.min;
+		do {
+			maxRank = Math.max(maxRank, rank(x));
+			x = right(x);
+		} while (x != this.min);
+		int[] arr = new int[maxRank + 1];
+		do {
+			arr[rank(x)]++;
+			x = right(x);
+		} while (x != this.min);
+		return arr;
+	}
+
+	/**
+	 * adds a node as a new root. the caller is responsible for updating min
+	 */
+	private void addRoot(int node) {
+		if (this.min == NONE) {
+			setLeft(node, node);
+			setRight(node, node);
+			this.min = node;
+		} else {
+			insertAfter(this.min, node);
+		}
+		this.trees++;
+	}
+
+	private void unmark(int node) {
+		if (isMarked(node)) {
+			setMarked(node, false);
+			this.marked--;
+		}
+	}
+
+	/**
+	 * inserts a single node to the right of the given list member
+	 */
+	private void insertAfter(int member, int node) {
+		int next = right(member);
+		setLeft(node, member);
+		setRight(node, next);
+		setLeft(next, node);
+		setRight(member, node);
+	}
+
+	/**
+	 * removes a node from its list of siblings and makes it a list of its own
+	 */
+	private void unlink(int node) {
+		int left = left(node);
+		int right = right(node);
+		setRight(left, right);
+		setLeft(right, left);
+		setLeft(node, node);
+		setRight(node, node);
+	}
+
+	/**
+	 * concatenates the two circular lists that a and b are members of
+	 */
+	private void splice(int a, int b) {
+		int aNext = right(a);
+		int bPrev = left(b);
+		setRight(a, b);
+		setLeft(b, a);
+		setRight(bPrev, aNext);
+		setLeft(aNext, bPrev);
+	}
+
+	/**
+	 * returns a free slot, for a node that is inserted with insertKeyAt
+	 */
+	final int allocate() {
+		int node = this.freeList;
+		if (node != NONE) {
+			this.freeList = right(node);
+			return node;
+		}
+		ensureCapacity(this.used + 1);
+		return this.used++;
+	}
+
+	private void release(int node) {
+		if (this.entries != null) {
+			this.entries.clear(node, node + 1);
+		}
+		setParent(node, FREE);
+		setRight(node, this.freeList);
+		this.freeList = node;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (this.slots != null) {
+			this.slots.ensureCapacity(capacity);
+			return;
+		}
+		if (capacity <= this.key.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, this.key.length + (this.key.length >> 1));
+		this.key = Arrays.copyOf(this.key, newCapacity);
+		this.parent = Arrays.copyOf(this.parent, newCapacity);
+		this.left = Arrays.copyOf(this.left, newCapacity);
+		this.right = Arrays.copyOf(this.right, newCapacity);
+		this.child = Arrays.copyOf(this.child, newCapacity);
+		this.rank = Arrays.copyOf(this.rank, newCapacity);
+		this.isMarked = Arrays.copyOf(this.isMarked, newCapacity);
+		if (this.entries != null) {
+			this.entries.ensureCapacity(newCapacity);
+		}
+	}
+
+	/**
+	 * returns true if and only if the key of node a is smaller than the key of node b
+	 */
+	private boolean less(int a, int b) {
+		return this.entries == null ? key(a) < key(b) : this.entries.less(a, b);
+	}
+
+	// accessors of the fields of a slot
+
+	private long key(int node) {
+		return this.slots == null ? this.key[node] : this.slots.key(node);
+	}
+
+	private void setKey(int node, long key) {
+		if (this.slots == null) {
+			this.key[node] = key;
+		} else {
+			this.slots.setKey(node, key);
+		}
+	}
+
+	private int parent(int node) {
+		return this.slots == null ? this.parent[node] : this.slots.parent(node);
+	}
+
+	private void setParent(int node, int parent) {
+		if (this.slots == null) {
+			this.parent[node] = parent;
+		} else {
+			this.slots.setParent(node, parent);
+		}
+	}
+
+	private int left(int node) {
+		return this.slots == null ? this.left[node] : this.slots.left(node);
+	}
+
+	private void setLeft(int node, int left) {
+		if (this.slots == null) {
+			this.left[node] = left;
+		} else {
+			this.slots.setLeft(node, left);
+		}
+	}
+
+	private int right(int node) {
+		return this.slots == null ? this.right[node] : this.slots.right(node);
+	}
+
+	private void setRight(int node, int right) {
+		if (this.slots == null) {
+			this.right[node] = right;
+		} else {
+			this.slots.setRight(node, right);
+		}
+	}
+
+	private int child(int node) {
+		return this.slots == null ? this.child[node] : this.slots.child(node);
+	}
+
+	private void setChild(int node, int child) {
+		if (this.slots == null) {
+			this.child[node] = child;
+		} else {
+			this.slots.setChild(node, child);
+		}
+	}
+
+	private int rank(int node) {
+		return this.slots == null ? this.rank[node] : this.slots.rank(node);
+	}
+
+	private void setRank(int node, int rank) {
+		if (this.slots == null) {
+			this.rank[node] = rank;
+		} else {
+			this.slots.setRank(node, rank);
+		}
+	}
+
+	private boolean isMarked(int node) {
+		return this.slots == null ? this.isMarked[node] : this.slots.isMarked(node);
+	}
+
+	private void setMarked(int node, boolean marked) {
+		if (this.slots == null) {
+			this.isMarked[node] = marked;
+		} else {
+			this.slots.setMarked(node, marked);
+		}
+	}
+}
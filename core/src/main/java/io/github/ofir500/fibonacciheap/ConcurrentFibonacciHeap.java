@@ -0,0 +1,262 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentFibonacciHeap
+ * <p>
+ * A thread safe priority queue over a FibonacciHeap, using flat combining: a thread publishes its operation
+ * in a request record of its own and then tries to take the combiner lock. the thread that gets the lock
+ * becomes the combiner, and applies the pending operations of all the threads to the heap in a single pass,
+ * while the others wait for their request to be marked as done. the heap is only touched by one thread at a
+ * time and stays in that thread's cache, and the lock changes hands once per batch instead of once per
+ * operation.
+ * <p>
+ * all the deleteMin requests of a pass are served by a single call to FibonacciHeap.deleteMin(k, out).
+ * the operations of a pass were all pending at the same time, so applying them in any order is linearizable.
+ * <p>
+ * the nodes returned from insert are handles for decreaseKey and delete. their fields belong to the heap
+ * and should not be read by other threads.
+ * <p>
+ * an operation that throws, such as decreaseKey of a node that isn't in the heap, fails on its own: the
+ * combiner stores the exception in the request, and it is thrown in the thread that submitted it. the heap
+ * runs with the ownership check of FibonacciHeap, so a node of another heap or a deleted node is rejected
+ * before it can corrupt the heap the other threads share.
+ * each thread that uses the heap keeps its request record for the lifetime of the heap.
+ */
+public class ConcurrentFibonacciHeap {
+
+	private static final int SPINS_BEFORE_YIELD = 64;
+
+	private final FibonacciHeap heap;
+	private final ReentrantLock combinerLock;
+	private final ThreadLocal<Request> request;
+	private volatile Request[] requests;
+	private volatile int size;
+
+	// used by the combiner only
+	private Request[] batch;
+	private int[] deleteMinKeys;
+
+	public ConcurrentFibonacciHeap() {
+		this.heap = new FibonacciHeap();
+		this.heap.setOwnershipCheck(true);
+		this.combinerLock = new ReentrantLock();
+		this.request = ThreadLocal.withInitial(this::register);
+		this.requests = new Request[0];
+		this.batch = new Request[0];
+		this.deleteMinKeys = new int[0];
+	}
+
+	/**
+	 * a request record, written by its thread while it has no pending request
+	 * and by the combiner while it has one. op is the flag handing it over, read and written through Handoff
+	 */
+	static final class Request {
+		static final int DONE = 0;
+		static final int INSERT = 1;
+		static final int DECREASE_KEY = 2;
+		static final int DELETE = 3;
+		static final int DELETE_MIN = 4;
+
+		volatile int op;
+		int key;
+		FibonacciHeap.HeapNode node;
+		boolean found;
+		Throwable failure; // thrown by the operation, to rethrow in the thread of the request
+	}
+
+	private synchronized Request register() {
+		Request request = new Request();
+		Request[] requests = this.requests;
+		Request[] updated = new Request[requests.length + 1];
+		System.arraycopy(requests, 0, updated, 0, requests.length);
+		updated[requests.length] = request;
+		this.requests = updated;
+		return request;
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Return the number of elements in the heap, as of the last combining pass
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Creates a node which contains the given key, inserts it into the heap and returns it.
+	 */
+	public FibonacciHeap.HeapNode insert(int key) {
+		Request request = this.request.get();
+		request.key = key;
+		submit(request, Request.INSERT);
+		FibonacciHeap.HeapNode node = request.node;
+		request.node = null;
+		return node;
+	}
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 *
+	 * @throws IllegalArgumentException if the node isn't in the heap
+	 */
+	public void decreaseKey(FibonacciHeap.HeapNode x, int delta) {
+		Request request = this.request.get();
+		request.node = x;
+		request.key = delta;
+		submit(request, Request.DECREASE_KEY);
+		request.node = null;
+	}
+
+	/**
+	 * Deletes the node x from the heap.
+	 *
+	 * @throws IllegalArgumentException if the node isn't in the heap
+	 */
+	public void delete(FibonacciHeap.HeapNode x) {
+		Request request = this.request.get();
+		request.node = x;
+		submit(request, Request.DELETE);
+		request.node = null;
+	}
+
+	/**
+	 * Deletes the node containing the minimum key and returns its key.
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int deleteMin() {
+		Request request = this.request.get();
+		submit(request, Request.DELETE_MIN);
+		if (!request.found) {
+			throw new NoSuchElementException("heap is empty");
+		}
+		return request.key;
+	}
+
+	/**
+	 * publishes the request and waits until it is done, combining if the combiner lock is free.
+	 * throws what the operation threw when the combiner applied it
+	 */
+	private void submit(Request request, int op) {
+		Handoff.publish(request, op);
+		int spins = 0;
+		while (Handoff.op(request) != Request.DONE) {
+			if (this.combinerLock.tryLock()) {
+				try {
+					combine();
+				} finally {
+					this.combinerLock.unlock();
+				}
+			} else if (++spins == SPINS_BEFORE_YIELD) {
+				spins = 0;
+				Thread.yield();
+			}
+		}
+		Throwable failure = request.failure;
+		if (failure != null) {
+			request.failure = null;
+			request.node = null;
+			// only unchecked exceptions are caught by the combiner
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			throw (RuntimeException) failure;
+		}
+	}
+
+	/**
+	 * applies all the pending requests to the heap. deleteMins are served together in one batch at the end,
+	 * and the requests are marked as done only after the size was updated. a request that throws gets the
+	 * exception instead of a result, and every request taken into the batch is marked as done, so a failed
+	 * operation neither leaves the other threads waiting nor gets applied again by the next combiner
+	 */
+	private void combine() {
+		Request[] requests = this.requests;
+		if (this.batch.length < requests.length) {
+			this.batch = new Request[requests.length];
+			this.deleteMinKeys = new int[requests.length];
+		}
+
+		int pending = 0;
+		try {
+			int deleteMins = 0;
+			for (Request request : requests) {
+				int op = Handoff.op(request);
+				if (op == Request.DONE) {
+					continue;
+				}
+				this.batch[pending++] = request;
+				if (op == Request.DELETE_MIN) {
+					deleteMins++;
+				} else {
+					apply(request, op);
+				}
+			}
+			if (deleteMins > 0) {
+				deleteMins(pending, deleteMins);
+			}
+		} finally {
+			this.size = this.heap.size();
+			for (int i = 0; i < pending; i++) {
+				Handoff.publish(this.batch[i], Request.DONE);
+				this.batch[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * applies an insert, decreaseKey or delete request, storing what it throws in the request
+	 */
+	private void apply(Request request, int op) {
+		try {
+			switch (op) {
+			case Request.INSERT:
+				request.node = this.heap.insert(request.key);
+				break;
+			case Request.DECREASE_KEY:
+				this.heap.decreaseKey(request.node, request.key);
+				break;
+			default:
+				this.heap.delete(request.node);
+				break;
+			}
+		} catch (RuntimeException | Error e) {
+			request.failure = e;
+		}
+	}
+
+	/**
+	 * serves the deleteMin requests among the first pending requests of the batch with a single batch deleteMin
+	 */
+	private void deleteMins(int pending, int deleteMins) {
+		int deleted;
+		Throwable failure = null;
+		try {
+			deleted = this.heap.deleteMin(deleteMins, this.deleteMinKeys);
+		} catch (RuntimeException | Error e) {
+			deleted = 0;
+			failure = e;
+		}
+		int next = 0;
+		for (int i = 0; i < pending; i++) {
+			Request request = this.batch[i];
+			if (Handoff.op(request) == Request.DELETE_MIN) {
+				request.failure = failure;
+				request.found = next < deleted;
+				if (request.found) {
+					request.key = this.deleteMinKeys[next];
+				}
+				next++;
+			}
+		}
+	}
+}
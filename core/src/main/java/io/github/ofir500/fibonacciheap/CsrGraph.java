@@ -0,0 +1,180 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * CsrGraph
+ * <p>
+ * A directed graph with non-negative edge weights in compressed sparse row form, the input of GraphSearch.
+ * the out-edges of vertex v are the edges offsets[v] ... offsets[v + 1] - 1, edge e goes to targets[e],
+ * and its weight is intWeights[e] or doubleWeights[e], whichever of the two the graph was created with.
+ * an undirected graph holds every edge in both directions.
+ * <p>
+ * the arrays are not copied, and should not be changed while the graph is in use.
+ */
+public final class CsrGraph {
+
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] intWeights; // null if the weights are doubles
+	private final double[] doubleWeights; // null if the weights are ints
+
+	private CsrGraph(int[] offsets, int[] targets, int[] intWeights, double[] doubleWeights) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.intWeights = intWeights;
+		this.doubleWeights = doubleWeights;
+	}
+
+	/**
+	 * creates a graph over the given CSR arrays with int weights
+	 *
+	 * @throws IllegalArgumentException if the arrays are not a valid graph or a weight is negative
+	 */
+	public static CsrGraph ofInts(int[] offsets, int[] targets, int[] weights) {
+		checkStructure(offsets, targets, weights.length);
+		for (int e = 0; e < weights.length; e++) {
+			if (weights[e] < 0) {
+				throw new IllegalArgumentException("negative weight " + weights[e] + " of edge " + e);
+			}
+		}
+		return new CsrGraph(offsets, targets, weights, null);
+	}
+
+	/**
+	 * creates a graph over the given CSR arrays with double weights
+	 *
+	 * @throws IllegalArgumentException if the arrays are not a valid graph or a weight is negative or NaN
+	 */
+	public static CsrGraph ofDoubles(int[] offsets, int[] targets, double[] weights) {
+		checkStructure(offsets, targets, weights.length);
+		for (int e = 0; e < weights.length; e++) {
+			// also rejects NaN and -0.0, whose bits don't sort as the bits of non-negative doubles do
+			if (!(weights[e] >= 0) || Double.doubleToRawLongBits(weights[e]) < 0) {
+				throw new IllegalArgumentException("negative weight " + weights[e] + " of edge " + e);
+			}
+		}
+		return new CsrGraph(offsets, targets, null, weights);
+	}
+
+	/**
+	 * creates a graph with int weights from a list of edges, edge i going from from[i] to to[i]
+	 */
+	public static CsrGraph fromEdges(int vertices, int[] from, int[] to, int[] weights) {
+		int[] offsets = countOffsets(vertices, from, to, weights.length);
+		int[] targets = new int[from.length];
+		int[] sortedWeights = new int[from.length];
+		int[] next = Arrays.copyOf(offsets, vertices);
+		for (int i = 0; i < from.length; i++) {
+			int e = next[from[i]]++;
+			targets[e] = to[i];
+			sortedWeights[e] = weights[i];
+		}
+		return ofInts(offsets, targets, sortedWeights);
+	}
+
+	/**
+	 * creates a graph with double weights from a list of edges, edge i going from from[i] to to[i]
+	 */
+	public static CsrGraph fromEdges(int vertices, int[] from, int[] to, double[] weights) {
+		int[] offsets = countOffsets(vertices, from, to, weights.length);
+		int[] targets = new int[from.length];
+		double[] sortedWeights = new double[from.length];
+		int[] next = Arrays.copyOf(offsets, vertices);
+		for (int i = 0; i < from.length; i++) {
+			int e = next[from[i]]++;
+			targets[e] = to[i];
+			sortedWeights[e] = weights[i];
+		}
+		return ofDoubles(offsets, targets, sortedWeights);
+	}
+
+	/**
+	 * counts the out-edges of every vertex, and returns the offset of each vertex' first edge
+	 */
+	private static int[] countOffsets(int vertices, int[] from, int[] to, int weights) {
+		if (vertices < 0 || to.length != from.length || weights != from.length) {
+			throw new IllegalArgumentException("vertices: " + vertices + ", edge arrays of lengths " + from.length
+					+ ", " + to.length + ", " + weights);
+		}
+		int[] offsets = new int[vertices + 1];
+		for (int i = 0; i < from.length; i++) {
+			if (from[i] < 0 || from[i] >= vertices) {
+				throw new IllegalArgumentException("edge " + i + " starts at vertex " + from[i]);
+			}
+			offsets[from[i] + 1]++;
+		}
+		for (int v = 0; v < vertices; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		return offsets;
+	}
+
+	private static void checkStructure(int[] offsets, int[] targets, int weights) {
+		if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length
+				|| weights != targets.length) {
+			throw new IllegalArgumentException("offsets must start at 0 and end at the number of edges ("
+					+ targets.length + "), with a weight per edge (" + weights + ")");
+		}
+		int vertices = offsets.length - 1;
+		for (int v = 0; v < vertices; v++) {
+			if (offsets[v] > offsets[v + 1]) {
+				throw new IllegalArgumentException("offsets decrease at vertex " + v);
+			}
+		}
+		for (int e = 0; e < targets.length; e++) {
+			if (targets[e] < 0 || targets[e] >= vertices) {
+				throw new IllegalArgumentException("edge " + e + " goes to vertex " + targets[e]);
+			}
+		}
+	}
+
+	public int vertices() {
+		return this.offsets.length - 1;
+	}
+
+	public int edges() {
+		return this.targets.length;
+	}
+
+	/**
+	 * returns true if the weights are doubles, and false if they are ints
+	 */
+	public boolean hasDoubleWeights() {
+		return this.doubleWeights != null;
+	}
+
+	/**
+	 * returns the first out-edge of v. the out-edges of v are firstEdge(v) ... firstEdge(v + 1) - 1
+	 */
+	public int firstEdge(int v) {
+		return this.offsets[v];
+	}
+
+	public int target(int e) {
+		return this.targets[e];
+	}
+
+	/**
+	 * returns the weight of edge e as a double, whichever type the weights are
+	 */
+	public double weight(int e) {
+		return this.doubleWeights != null ? this.doubleWeights[e] : this.intWeights[e];
+	}
+
+	int[] offsets() {
+		return this.offsets;
+	}
+
+	int[] targets() {
+		return this.targets;
+	}
+
+	int[] intWeights() {
+		return this.intWeights;
+	}
+
+	double[] doubleWeights() {
+		return this.doubleWeights;
+	}
+}
@@ -0,0 +1,68 @@
+package io.github.ofir500.fibonacciheap;
+
+/**
+ * DoubleFibonacciHeap
+ * <p>
+ * An implementation of fibonacci heap over double keys (such as edge weights) that keeps its nodes
+ * in parallel primitive arrays. a node is addressed by the int handle returned from insert.
+ * see ArrayFibonacciHeap for the structure.
+ * <p>
+ * keys are ordered like Double.compare: -0.0 is smaller than 0.0, and NaN is bigger than any other key.
+ */
+public class DoubleFibonacciHeap extends ArrayFibonacciHeap {
+
+	public DoubleFibonacciHeap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public DoubleFibonacciHeap(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	/**
+	 * maps a double to a long whose signed order is the order of Double.compare.
+	 * the bits of negative doubles grow as the value shrinks, so all but their sign bit are flipped
+	 */
+	static long toSortableBits(double key) {
+		long bits = Double.doubleToLongBits(key);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+	/**
+	 * inverse of toSortableBits
+	 */
+	static double fromSortableBits(long bits) {
+		return Double.longBitsToDouble(bits ^ ((bits >> 63) & Long.MAX_VALUE));
+	}
+
+	/**
+	 * Creates a node which contains the given key, inserts it into the heap and returns its handle.
+	 */
+	public int insert(double key) {
+		return insertKey(toSortableBits(key));
+	}
+
+	/**
+	 * returns the key of the given node
+	 */
+	public double getKey(int node) {
+		return fromSortableBits(storedKey(node));
+	}
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 * pre-condition: the node is in the heap and delta is not negative
+	 */
+	public void decreaseKey(int x, double delta) {
+		decreaseStoredKey(x, toSortableBits(getKey(x) - delta));
+	}
+
+	/**
+	 * Meld the heap with heap2.
+	 * the nodes of heap2 are copied into this heap and heap2 is left empty. a handle h of heap2
+	 * refers to node h + offset of this heap, where offset is the returned value
+	 */
+	public int meld(DoubleFibonacciHeap heap2) {
+		return meldHeap(heap2);
+	}
+}
@@ -0,0 +1,595 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * DurableFibonacciHeap
+ * <p>
+ * A FibonacciHeap whose operations survive a crash. every insert, decreaseKey, delete and deleteMin is
+ * appended to a log in a directory of its own, and opening the directory again replays the log.
+ * the log is cut short by snapshots: every snapshotInterval operations the heap is written with
+ * FibonacciHeap.writeTo, and the log starts over.
+ * <p>
+ * operations are collected into frames of up to batchSize operations, each written with a single write,
+ * and the sync policy decides when the frames are forced to the disk:
+ * <ul>
+ * <li>ALWAYS - every operation is its own frame, written and forced before the operation returns. nothing
+ * is lost in a crash, at the price of an fsync per operation.</li>
+ * <li>BATCH - a frame is written and forced every batchSize operations (group commit). a crash loses at
+ * most the last batchSize - 1 operations.</li>
+ * <li>NEVER - a frame is written every batchSize operations and the operating system decides when it
+ * reaches the disk. a crash of the process loses at most the last batchSize - 1 operations, a crash of
+ * the machine may lose more.</li>
+ * </ul>
+ * sync forces the pending operations to the disk whatever the policy is, and close syncs.
+ * <p>
+ * an operation is added to the log before it changes the heap, so an operation that fails to be written
+ * throws without changing the heap. an IOException of a snapshot that was due comes after the operation was
+ * logged and applied.
+ * <p>
+ * nodes are addressed by ids, which are given out in the order of insertion and stay the same after
+ * the heap is opened again. each frame carries a checksum and the number of its first operation, so a frame
+ * that was only partly written is dropped, and frames the last snapshot already holds are skipped.
+ * <p>
+ * not thread safe.
+ */
+public class DurableFibonacciHeap implements Closeable {
+
+	public enum SyncPolicy {
+		ALWAYS, BATCH, NEVER
+	}
+
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 1 << 20;
+
+	private static final String LOG_FILE = "heap.log";
+	private static final String SNAPSHOT_FILE = "heap.snapshot";
+	private static final int SNAPSHOT_MAGIC = 0x46494253; // "FIBS"
+
+	// operations of the log
+	private static final byte INSERT = 1; // followed by the key
+	private static final byte DECREASE_KEY = 2; // followed by the id and delta
+	private static final byte DELETE = 3; // followed by the id
+	private static final byte DELETE_MIN = 4; // followed by the id of the deleted node
+	private static final int MAX_RECORD_SIZE = 13;
+	private static final int FRAME_HEADER_SIZE = 16; // payload length, checksum, number of the first operation
+
+	private final Path directory;
+	private final SyncPolicy policy;
+	private final int batchSize;
+	private final long snapshotInterval;
+
+	private FibonacciHeap heap;
+	private final Map<Long, FibonacciHeap.HeapNode> nodes; // node of each id
+	private final Map<FibonacciHeap.HeapNode, Long> ids; // id of each node
+	private long nextId;
+	private long operations; // number of operations applied since the heap was created
+
+	private final FileChannel log;
+	private final ByteBuffer frame;
+	private final CRC32 crc;
+	private int frameOperations;
+	private long frameFirst; // number of the first operation of the frame
+	private long sinceSnapshot;
+
+	/**
+	 * opens the heap in the given directory with BATCH policy, DEFAULT_BATCH_SIZE and DEFAULT_SNAPSHOT_INTERVAL
+	 */
+	public DurableFibonacciHeap(Path directory) throws IOException {
+		this(directory, SyncPolicy.BATCH, DEFAULT_BATCH_SIZE, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * opens the heap in the given directory, creating it if needed, and restores the operations written
+	 * to it before.
+	 *
+	 * @param batchSize        - number of operations per frame, ignored by the ALWAYS policy
+	 * @param snapshotInterval - number of operations between snapshots, or 0 to take snapshots only when
+	 *                         snapshot is called
+	 */
+	public DurableFibonacciHeap(Path directory, SyncPolicy policy, int batchSize, long snapshotInterval)
+			throws IOException {
+		if (batchSize < 1 || snapshotInterval < 0) {
+			throw new IllegalArgumentException("batchSize: " + batchSize + ", snapshotInterval: " + snapshotInterval);
+		}
+		this.directory = directory;
+		this.policy = policy;
+		this.batchSize = policy == SyncPolicy.ALWAYS ? 1 : batchSize;
+		this.snapshotInterval = snapshotInterval;
+		this.heap = new FibonacciHeap();
+		this.nodes = new HashMap<>();
+		this.ids = new HashMap<>();
+		this.crc = new CRC32();
+		this.frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + this.batchSize * MAX_RECORD_SIZE);
+
+		Files.createDirectories(directory);
+		Path snapshot = directory.resolve(SNAPSHOT_FILE);
+		if (Files.exists(snapshot)) {
+			readSnapshot(snapshot);
+		}
+		this.log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		replay();
+		this.frameFirst = this.operations;
+		startFrame();
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	public boolean empty() {
+		return this.heap.empty();
+	}
+
+	/**
+	 * Return the number of elements in the heap
+	 */
+	public int size() {
+		return this.heap.size();
+	}
+
+	/**
+	 * Inserts the given key into the heap and returns the id of its node.
+	 */
+	public long insert(int key) throws IOException {
+		int start = this.frame.position();
+		this.frame.put(INSERT).putInt(key);
+		append(start);
+		long id = applyInsert(key);
+		applied();
+		return id;
+	}
+
+	/**
+	 * The function decreases the key of the node with the given id by delta.
+	 *
+	 * @throws NoSuchElementException if there is no such node in the heap
+	 */
+	public void decreaseKey(long id, int delta) throws IOException {
+		node(id);
+		int start = this.frame.position();
+		this.frame.put(DECREASE_KEY).putLong(id).putInt(delta);
+		append(start);
+		applyDecreaseKey(id, delta);
+		applied();
+	}
+
+	/**
+	 * Deletes the node with the given id from the heap.
+	 *
+	 * @throws NoSuchElementException if there is no such node in the heap
+	 */
+	public void delete(long id) throws IOException {
+		node(id);
+		int start = this.frame.position();
+		this.frame.put(DELETE).putLong(id);
+		append(start);
+		applyDelete(id);
+		applied();
+	}
+
+	/**
+	 * Deletes the node containing the minimum key and returns its key.
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int deleteMin() throws IOException {
+		long id = findMinId();
+		int start = this.frame.position();
+		this.frame.put(DELETE_MIN).putLong(id);
+		append(start);
+		int key = applyDeleteMin();
+		applied();
+		return key;
+	}
+
+	/**
+	 * Return the minimal key of the heap
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int findMin() {
+		return min().getKey();
+	}
+
+	/**
+	 * Return the id of the node whose key is minimal
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public long findMinId() {
+		return this.ids.get(min());
+	}
+
+	/**
+	 * returns the key of the node with the given id
+	 *
+	 * @throws NoSuchElementException if there is no such node in the heap
+	 */
+	public int getKey(long id) {
+		return node(id).getKey();
+	}
+
+	/**
+	 * returns the number of operations applied to the heap since it was created, in this run and before it
+	 */
+	public long operations() {
+		return this.operations;
+	}
+
+	private FibonacciHeap.HeapNode min() {
+		FibonacciHeap.HeapNode min = this.heap.findMin();
+		if (min == null) {
+			throw new NoSuchElementException("heap is empty");
+		}
+		return min;
+	}
+
+	private FibonacciHeap.HeapNode node(long id) {
+		FibonacciHeap.HeapNode node = this.nodes.get(id);
+		if (node == null) {
+			throw new NoSuchElementException("no node with id " + id);
+		}
+		return node;
+	}
+
+	// the operations themselves, shared by the public methods and the replay of the log
+
+	private long applyInsert(int key) {
+		FibonacciHeap.HeapNode node = this.heap.insert(key);
+		long id = this.nextId++;
+		this.nodes.put(id, node);
+		this.ids.put(node, id);
+		this.operations++;
+		return id;
+	}
+
+	private void applyDecreaseKey(long id, int delta) {
+		this.heap.decreaseKey(node(id), delta);
+		this.operations++;
+	}
+
+	private void applyDelete(long id) {
+		FibonacciHeap.HeapNode node = node(id);
+		this.heap.delete(node);
+		this.nodes.remove(id);
+		this.ids.remove(node);
+		this.operations++;
+	}
+
+	private int applyDeleteMin() {
+		FibonacciHeap.HeapNode min = min();
+		this.heap.deleteMin();
+		this.nodes.remove(this.ids.remove(min));
+		this.operations++;
+		return min.getKey();
+	}
+
+	/**
+	 * replays a deleteMin that removed the node with the given id. with equal keys the minimum of the
+	 * replayed heap may be another node, and then the logged node is deleted instead, so the ids stay right
+	 */
+	private void applyDeleteMin(long id) {
+		if (node(id) == min()) {
+			applyDeleteMin();
+		} else {
+			applyDelete(id);
+		}
+	}
+
+	/**
+	 * called after an operation was added to the frame at start, before it is applied. writes the frame when
+	 * it is full, and if that fails takes the operation out of the frame again, so it is neither logged nor
+	 * applied
+	 */
+	private void append(int start) throws IOException {
+		this.frameOperations++;
+		if (this.frameOperations == this.batchSize) {
+			try {
+				writeFrame(this.policy != SyncPolicy.NEVER);
+			} catch (IOException e) {
+				this.frame.position(start);
+				this.frameOperations--;
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * called after an operation was applied, takes a snapshot when it is due
+	 */
+	private void applied() throws IOException {
+		if (this.snapshotInterval > 0 && ++this.sinceSnapshot >= this.snapshotInterval) {
+			snapshot();
+		}
+	}
+
+	private void startFrame() {
+		this.frame.clear();
+		this.frame.position(FRAME_HEADER_SIZE);
+		this.frameOperations = 0;
+	}
+
+	/**
+	 * appends the frame of the pending operations to the log, and forces it to the disk if force is true.
+	 * if that fails the frame stays pending, and whatever part of it was written is cut from the log
+	 */
+	private void writeFrame(boolean force) throws IOException {
+		if (this.frameOperations == 0) {
+			if (force) {
+				this.log.force(false);
+			}
+			return;
+		}
+		ByteBuffer frame = this.frame;
+		int length = frame.position() - FRAME_HEADER_SIZE;
+		this.crc.reset();
+		this.crc.update(frame.array(), FRAME_HEADER_SIZE, length);
+		frame.putInt(0, length);
+		frame.putInt(4, (int) this.crc.getValue());
+		frame.putLong(8, this.frameFirst);
+		frame.flip();
+		long start = this.log.position();
+		try {
+			while (frame.hasRemaining()) {
+				this.log.write(frame);
+			}
+			if (force) {
+				this.log.force(false);
+			}
+		} catch (IOException e) {
+			frame.limit(frame.capacity());
+			frame.position(FRAME_HEADER_SIZE + length);
+			try {
+				this.log.truncate(start);
+				this.log.position(start);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		this.frameFirst += this.frameOperations;
+		startFrame();
+	}
+
+	/**
+	 * Writes the pending operations to the log and forces them to the disk.
+	 */
+	public void sync() throws IOException {
+		writeFrame(true);
+	}
+
+	/**
+	 * Writes the heap to a new snapshot and empties the log. the snapshot is written to a temporary file
+	 * that replaces the old snapshot only once it is complete, and the log is emptied only once the rename
+	 * reached the disk.
+	 */
+	public void snapshot() throws IOException {
+		writeFrame(false);
+		Path tmp = this.directory.resolve(SNAPSHOT_FILE + ".tmp");
+		try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeSnapshot(out);
+			out.force(true);
+		}
+		Files.move(tmp, this.directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		// the rename is an update of the directory, which has to be forced on its own. otherwise a crash could
+		// keep the emptied log and lose the new snapshot
+		try (FileChannel dir = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		}
+		// if the log isn't emptied because of a crash, its operations are skipped when it is replayed
+		this.log.truncate(0);
+		this.log.position(0);
+		this.log.force(true);
+		this.sinceSnapshot = 0;
+	}
+
+	/**
+	 * writes the number of operations, the next id, the ids of the nodes in the preorder of
+	 * FibonacciHeap.writeTo, and then the heap itself
+	 */
+	private void writeSnapshot(FileChannel out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		buffer.putInt(SNAPSHOT_MAGIC).putLong(this.operations).putLong(this.nextId).putInt(this.heap.size());
+		for (FibonacciHeap.HeapNode root : this.heap) {
+			FibonacciHeap.HeapNode node = root;
+			while (true) {
+				if (buffer.remaining() < 8) {
+					write(buffer, out);
+				}
+				buffer.putLong(this.ids.get(node));
+
+				FibonacciHeap.HeapNode first = node.firstChild();
+				if (first != null) {
+					node = first;
+					continue;
+				}
+				while (node != root && node.right.isSentinel()) {
+					node = node.parent;
+				}
+				if (node == root) {
+					break;
+				}
+				node = node.right;
+			}
+		}
+		write(buffer, out);
+		this.heap.writeTo(out);
+	}
+
+	private static void write(ByteBuffer buffer, FileChannel out) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void readSnapshot(Path snapshot) throws IOException {
+		try (FileChannel in = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+			ByteBuffer header = read(in, 24);
+			if (header.getInt() != SNAPSHOT_MAGIC) {
+				throw new IOException("not a heap snapshot: " + snapshot);
+			}
+			this.operations = header.getLong();
+			this.nextId = header.getLong();
+			int size = header.getInt();
+			long[] nodeIds = new long[size];
+			for (int i = 0; i < size; ) {
+				ByteBuffer buffer = read(in, 8 * Math.min(size - i, 8192));
+				while (buffer.hasRemaining()) {
+					nodeIds[i++] = buffer.getLong();
+				}
+			}
+			this.heap = FibonacciHeap.readFrom(in);
+			if (this.heap.size() != size) {
+				throw new IOException("corrupt snapshot: " + this.heap.size() + " nodes instead of " + size);
+			}
+
+			// the nodes are walked in the order their ids were written
+			int i = 0;
+			for (FibonacciHeap.HeapNode root : this.heap) {
+				FibonacciHeap.HeapNode node = root;
+				while (true) {
+					this.nodes.put(nodeIds[i], node);
+					this.ids.put(node, nodeIds[i]);
+					i++;
+
+					FibonacciHeap.HeapNode first = node.firstChild();
+					if (first != null) {
+						node = first;
+						continue;
+					}
+					while (node != root && node.right.isSentinel()) {
+						node = node.parent;
+					}
+					if (node == root) {
+						break;
+					}
+					node = node.right;
+				}
+			}
+		}
+	}
+
+	/**
+	 * reads exactly count bytes from in
+	 */
+	private static ByteBuffer read(FileChannel in, int count) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(count);
+		while (buffer.hasRemaining()) {
+			if (in.read(buffer) < 0) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * applies the frames of the log, skipping operations the snapshot already holds. the log is cut at the
+	 * first frame that is incomplete or whose checksum is wrong, which is where the last write was torn
+	 */
+	private void replay() throws IOException {
+		long end = this.log.size();
+		long position = 0;
+		ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+		while (end - position >= FRAME_HEADER_SIZE) {
+			header.clear();
+			readFully(header, position);
+			int length = header.getInt(0);
+			int checksum = header.getInt(4);
+			long first = header.getLong(8);
+			if (length < 0 || length > end - position - FRAME_HEADER_SIZE) {
+				break;
+			}
+			ByteBuffer payload = ByteBuffer.allocate(length);
+			readFully(payload, position + FRAME_HEADER_SIZE);
+			this.crc.reset();
+			this.crc.update(payload.array(), 0, length);
+			if ((int) this.crc.getValue() != checksum) {
+				break;
+			}
+			payload.flip();
+			if (first > this.operations) {
+				throw new IOException("log continues from operation " + first + " but the heap has " + this.operations);
+			}
+			for (long op = first; payload.hasRemaining(); op++) {
+				replayRecord(payload, op < this.operations);
+			}
+			position += FRAME_HEADER_SIZE + length;
+		}
+		this.log.truncate(position);
+		this.log.position(position);
+	}
+
+	/**
+	 * fills the buffer from the log, starting at the given position
+	 */
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (this.log.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+	}
+
+	private void replayRecord(ByteBuffer payload, boolean skip) throws IOException {
+		byte type = payload.get();
+		switch (type) {
+		case INSERT:
+			int key = payload.getInt();
+			if (!skip) {
+				applyInsert(key);
+			}
+			break;
+		case DECREASE_KEY:
+			long id = payload.getLong();
+			int delta = payload.getInt();
+			if (!skip) {
+				applyDecreaseKey(id, delta);
+			}
+			break;
+		case DELETE:
+			id = payload.getLong();
+			if (!skip) {
+				applyDelete(id);
+			}
+			break;
+		case DELETE_MIN:
+			id = payload.getLong();
+			if (!skip) {
+				applyDeleteMin(id);
+			}
+			break;
+		default:
+			throw new IOException("unknown operation " + type + " in the log");
+		}
+	}
+
+	/**
+	 * Writes the pending operations to the log, forces them to the disk and closes the log.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			sync();
+		} finally {
+			this.log.close();
+		}
+	}
+}
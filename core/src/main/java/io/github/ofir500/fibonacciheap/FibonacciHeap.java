@@ -0,0 +1,1759 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * FibonacciHeap
+ * <p>
+ *     Created by: Ofir Feffer	moodle:ofirfeffer	id: 203565833
+ *     				Ilor Ifrah	moodle: ilorifrach	id: 205828478
+ * An implementation of fibonacci heap over non-negative integers.
+ * implements Iterable - iteration is over the roots of trees held by the heap
+ * implements MeldableHeap - can be swapped with PairingHeap or RankPairingHeap
+ *
+ */
+public class FibonacciHeap implements Iterable<FibonacciHeap.HeapNode>, MeldableHeap<FibonacciHeap.HeapNode, FibonacciHeap> {
+
+	private static final int INITIAL_RANK_TABLE_SIZE = 16;
+	private static final int SNAPSHOT_MAGIC = 0x46494248; // "FIBH"
+	private static final int SNAPSHOT_VERSION = 2;
+	private static final int SNAPSHOT_BUFFER_SIZE = 1 << 16;
+	private static final int INCREMENTAL_EXTRA_STEPS = 2; // consolidation steps per operation on top of its own roots
+	private static final int PARALLEL_BUILD_THRESHOLD = 1 << 15; // keys built sequentially by a parallel build task
+
+	private HeapNode sentinel;
+	private HeapNode min;
+	private int size;
+	private int potential;
+	private HeapNode[] treesByRank; // used by consolidate, kept between calls
+	private final FibonacciHeapMetrics metrics; // null if the heap doesn't count its operations
+	private boolean lazyDecreaseKey;
+	private HeapNode[] pendingDecreases; // nodes whose key was decreased and weren't cut yet, in lazy mode
+	private int pendingCount;
+	private HeapNode[] cutParents; // used by applyDecreases, kept between calls
+	private boolean incrementalConsolidation;
+	private int pendingRoots; // roots at the front of the root list that aren't in the rank table, in incremental mode
+	private Owner owner; // the owner of the nodes created by this heap or melded into it
+	private boolean ownershipCheck;
+	private HeapNode freeNodes; // deleted nodes kept for reuse, linked through their right field
+	private int freeCount;
+	private int nodePoolCapacity;
+
+	/**
+	 * creates a heap that counts its operations in metrics of its own, which don't add to the JVM-wide totals
+	 */
+	public FibonacciHeap() {
+		this(new FibonacciHeapMetrics());
+	}
+
+	/**
+	 * creates a heap that counts its operations in the given metrics, or doesn't count them if it is null
+	 */
+	public FibonacciHeap(FibonacciHeapMetrics metrics) {
+		this.metrics = metrics;
+		this.sentinel = createSentinel();
+		this.treesByRank = new HeapNode[INITIAL_RANK_TABLE_SIZE];
+		this.min = null;
+		this.size = 0;
+		this.potential = 0;
+		this.lazyDecreaseKey = false;
+		this.pendingDecreases = new HeapNode[0];
+		this.pendingCount = 0;
+		this.cutParents = new HeapNode[0];
+		this.incrementalConsolidation = false;
+		this.pendingRoots = 0;
+		this.owner = new Owner();
+		this.ownershipCheck = false;
+		this.freeNodes = null;
+		this.freeCount = 0;
+		this.nodePoolCapacity = 0;
+	}
+
+	/**
+	 * creates a dummy node, that its right and left fields point to itself
+	 */
+	private static HeapNode createSentinel() {
+		HeapNode sentinel = new HeapNode();
+		sentinel.right = sentinel;
+		sentinel.left = sentinel;
+		return sentinel;
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Creates a node (of type HeapNode) which contains the given key, and
+	 * inserts it into the heap.
+	 */
+	public HeapNode insert(int key) {
+		//create the node
+		HeapNode node = newNode(key);
+		//append the node as a new root to the root list
+		this.sentinel.appendSibling(node);
+		// update minimum pointer if necessary
+		if (this.min == null || node.key < this.min.key) {
+			this.min = node;
+		}
+		this.size++;
+		this.potential++; //each insertion adds a new tree
+		if (this.incrementalConsolidation) {
+			this.pendingRoots++;
+			consolidateSteps(2 + INCREMENTAL_EXTRA_STEPS);
+		}
+		return node;
+	}
+
+	/**
+	 * Creates a heap holding the given keys, see insertAll.
+	 */
+	public static FibonacciHeap fromArray(int[] keys, boolean consolidate) {
+		FibonacciHeap heap = new FibonacciHeap();
+		heap.bulkInsert(keys, 0, keys.length, consolidate, null, 0);
+		return heap;
+	}
+
+	/**
+	 * Creates a heap holding the given keys as single-node trees, like inserting them one by one.
+	 */
+	public static FibonacciHeap fromArray(int[] keys) {
+		return fromArray(keys, false);
+	}
+
+	/**
+	 * Creates a consolidated heap holding the given keys, like fromArray(keys, true), building it in parallel
+	 * in the common fork/join pool, see fromArrayParallel(int[], HeapNode[], ForkJoinPool).
+	 */
+	public static FibonacciHeap fromArrayParallel(int[] keys) {
+		return fromArrayParallel(keys, null, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a consolidated heap holding the given keys, building it in parallel in the given pool.
+	 * the array is split into ranges that are built into consolidated heaps of their own by separate tasks,
+	 * and every two heaps are melded and consolidated again as their tasks finish. a consolidated heap has at
+	 * most one tree of each rank, so a merge links O(log n) roots, like adding two binary numbers, and all
+	 * the work but the last merges is spread over the pool.
+	 *
+	 * @param nodes - if not null, nodes[i] is set to the node holding keys[i]. must be as long as keys
+	 */
+	public static FibonacciHeap fromArrayParallel(int[] keys, HeapNode[] nodes, ForkJoinPool pool) {
+		if (nodes != null && nodes.length != keys.length) {
+			throw new IllegalArgumentException("nodes.length (" + nodes.length + ") isn't keys.length ("
+					+ keys.length + ")");
+		}
+		FibonacciHeap heap = new FibonacciHeap();
+		heap.meld(pool.invoke(new BuildTask(keys, nodes, 0, keys.length)));
+		return heap;
+	}
+
+	/**
+	 * Inserts keys[off] ... keys[off + len - 1] into the heap as single-node trees, like inserting them one by one.
+	 *
+	 * @return the created nodes, in the order of their keys in the array
+	 */
+	public HeapNode[] insertAll(int[] keys, int off, int len) {
+		return insertAll(keys, off, len, false);
+	}
+
+	/**
+	 * Inserts keys[off] ... keys[off + len - 1] into the heap.
+	 * the new nodes are chained to each other and the chain is appended to the root list at once,
+	 * and the minimum is updated once for the whole batch.
+	 * if consolidate is true, the root list is consolidated right away, so the work of linking the new
+	 * trees is done here instead of in the next deleteMin.
+	 *
+	 * @return the created nodes, in the order of their keys in the array
+	 */
+	public HeapNode[] insertAll(int[] keys, int off, int len, boolean consolidate) {
+		if (off < 0 || len < 0 || off > keys.length - len) {
+			throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + keys.length);
+		}
+		HeapNode[] nodes = new HeapNode[len];
+		bulkInsert(keys, off, len, consolidate, nodes, 0);
+		return nodes;
+	}
+
+	/**
+	 * insertAll without the array of handles, for the callers that don't need them: if nodes isn't null,
+	 * nodes[nodesOff + i] is set to the node holding keys[off + i]
+	 */
+	private void bulkInsert(int[] keys, int off, int len, boolean consolidate, HeapNode[] nodes, int nodesOff) {
+		if (len == 0) {
+			return;
+		}
+
+		// chain the new nodes to each other, finding their minimum on the way
+		HeapNode first = newNode(keys[off]);
+		HeapNode last = first;
+		HeapNode batchMin = first;
+		if (nodes != null) {
+			nodes[nodesOff] = first;
+		}
+		for (int i = 1; i < len; i++) {
+			HeapNode node = newNode(keys[off + i]);
+			node.left = last;
+			last.right = node;
+			last = node;
+			if (node.key < batchMin.key) {
+				batchMin = node;
+			}
+			if (nodes != null) {
+				nodes[nodesOff + i] = node;
+			}
+		}
+
+		// append the whole chain to the root list
+		HeapNode next = this.sentinel.right;
+		this.sentinel.right = first;
+		first.left = this.sentinel;
+		last.right = next;
+		next.left = last;
+
+		if (this.min == null || batchMin.key < this.min.key) {
+			this.min = batchMin;
+		}
+		this.size += len;
+		this.potential += len; //each new node is a new tree
+
+		if (this.incrementalConsolidation) {
+			// the batch pays for linking its own trees, like len inserts would
+			this.pendingRoots += len;
+			consolidateSteps(consolidate ? Integer.MAX_VALUE : 2 * len + INCREMENTAL_EXTRA_STEPS);
+		} else if (consolidate) {
+			applyDecreases();
+			this.min = null; // consolidate function will find the new minimum
+			consolidate();
+		}
+	}
+
+	/**
+	 * Delete the node containing the minimum key.
+	 */
+	public void deleteMin() {
+		if (this.min == null) {
+			// heap is empty, no action needed
+			return;
+		}
+		if (this.incrementalConsolidation) {
+			deleteMinIncremental();
+			return;
+		}
+		applyDecreases();
+		removeMin();
+		consolidate();
+	}
+
+	/**
+	 * deleteMin in incremental mode: the children of the minimum join the pending roots, and the operation
+	 * makes a bounded number of consolidation steps - two for every root it added and a few more - instead
+	 * of consolidating the whole root list. the new minimum is the smallest of the trees in the rank table
+	 * and the pending roots, of which there are O(log n) once the earlier operations caught up
+	 */
+	private void deleteMinIncremental() {
+		int pendingBefore = this.pendingRoots;
+		applyDecreases();
+		HeapNode min = this.min;
+		if (min.rank < this.treesByRank.length && this.treesByRank[min.rank] == min) {
+			this.treesByRank[min.rank] = null;
+		} else {
+			this.pendingRoots--;
+		}
+		this.pendingRoots += min.rank; // removeMin puts the children at the front of the root list
+		removeMin();
+		consolidateSteps(2 * Math.max(0, this.pendingRoots - pendingBefore) + INCREMENTAL_EXTRA_STEPS);
+		findMinIncremental();
+	}
+
+	/**
+	 * finds the minimum in incremental mode, among the pending roots and the trees in the rank table
+	 */
+	private void findMinIncremental() {
+		this.min = null;
+		HeapNode root = this.sentinel.right;
+		for (int i = 0; i < this.pendingRoots; i++) {
+			if (this.min == null || root.key < this.min.key) {
+				this.min = root;
+			}
+			root = root.right;
+		}
+		for (HeapNode tree : this.treesByRank) {
+			if (tree != null && (this.min == null || tree.key < this.min.key)) {
+				this.min = tree;
+			}
+		}
+	}
+
+	/**
+	 * Deletes the k nodes with the smallest keys, or all the nodes if the heap holds less than k,
+	 * and writes their keys to out in ascending order.
+	 *
+	 * @return the number of deleted nodes
+	 */
+	public int deleteMin(int k, int[] out) {
+		if (k > out.length) {
+			throw new IllegalArgumentException("k (" + k + ") is bigger than the output array (" + out.length + ")");
+		}
+		return deleteMins(k, out, null);
+	}
+
+	/**
+	 * Deletes the max nodes with the smallest keys, or all the nodes if the heap holds less than max,
+	 * and passes their keys to consumer in ascending order.
+	 *
+	 * @return the number of deleted nodes
+	 */
+	public int drainTo(IntConsumer consumer, int max) {
+		return deleteMins(max, null, consumer);
+	}
+
+	/**
+	 * deletes up to max minimal nodes, writing their keys to out, or passing them to consumer if out is null.
+	 * after a node is deleted its children join the root list, and as long as the root list stays short the
+	 * next minimum is found by scanning it rather than by consolidating. the root list is consolidated only
+	 * when it grows past a limit that depends on the highest rank, and once when the batch is done
+	 */
+	private int deleteMins(int max, int[] out, IntConsumer consumer) {
+		int count = Math.min(max, this.size);
+		if (count <= 0) {
+			return 0;
+		}
+		if (this.incrementalConsolidation) {
+			// the point of the mode is to bound every deletion, so the batch doesn't consolidate at once
+			for (int i = 0; i < count; i++) {
+				if (out != null) {
+					out[i] = this.min.key;
+				} else {
+					consumer.accept(this.min.key);
+				}
+				deleteMinIncremental();
+			}
+			return count;
+		}
+		applyDecreases();
+
+		int roots = 0;
+		for (HeapNode root = this.sentinel.right; !root.isSentinel(); root = root.right) {
+			roots++;
+		}
+		for (int i = 0; i < count; i++) {
+			if (out != null) {
+				out[i] = this.min.key;
+			} else {
+				consumer.accept(this.min.key);
+			}
+			roots += this.min.rank - 1;
+			removeMin();
+			if (i == count - 1 || roots > 2 * this.treesByRank.length) {
+				roots = consolidate();
+			} else {
+				// find the new minimum among the roots
+				for (HeapNode root = this.sentinel.right; !root.isSentinel(); root = root.right) {
+					if (this.min == null || root.key < this.min.key) {
+						this.min = root;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * removes the minimum from the root list and makes roots out of its children,
+	 * leaving min null for the caller to find the new minimum
+	 */
+	private void removeMin() {
+		removeRoot(this.min);
+		this.min = null; // consolidate function will find the new minimum
+	}
+
+	/**
+	 * removes a root from the root list and makes roots out of its children
+	 */
+	private void removeRoot(HeapNode root) {
+		if (root.child != null) {
+			// make a root out of each of the root's children
+			HeapNode child = root.child.right;
+			while (!child.isSentinel()) {
+				HeapNode next = child.right;
+				this.sentinel.appendSibling(child);
+				child.parent = null;
+				this.potential++; // each child that becomes a root adds 1 to the potential
+				if (child.isMarked) {
+					child.isMarked = false;
+					this.potential -= 2;
+				}
+				child = next;
+			}
+			root.child.right = root.child;
+			root.child.left = root.child;
+		}
+		//delete the root and reduce potential by 1
+		this.sentinel.deleteSibling(root);
+		root.owner = null;
+		this.potential--;
+		this.size--;
+		if (this.freeCount < this.nodePoolCapacity) {
+			// keep the node, with its child sentinel, for the next insert
+			root.generation++;
+			root.rank = 0;
+			root.isMarked = false;
+			root.left = null;
+			root.right = this.freeNodes;
+			this.freeNodes = root;
+			this.freeCount++;
+		}
+	}
+
+	/**
+	 * creates a node for insert, or takes one from the node pool
+	 */
+	private HeapNode newNode(int key) {
+		HeapNode node = this.freeNodes;
+		if (node == null) {
+			return new HeapNode(key, this.owner);
+		}
+		this.freeNodes = node.right;
+		this.freeCount--;
+		node.key = key;
+		node.owner = this.owner;
+		node.right = node;
+		node.left = node;
+		return node;
+	}
+
+	/**
+	 * Sets how many deleted nodes the heap keeps for reuse. insert takes a node from the pool when there is
+	 * one instead of allocating, which under insert and delete churn keeps the heap from allocating at all.
+	 * 0, the default, turns pooling off. a smaller capacity drops the nodes over it.
+	 * <p>
+	 * a node that was deleted may come back as a different element, so a handle kept after delete is no
+	 * longer safe to use. getGeneration of a node changes every time it is reused: keep it with the node, and
+	 * pass it to contains, decreaseKey or delete to detect a stale handle.
+	 */
+	public void setNodePoolCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity: " + capacity);
+		}
+		this.nodePoolCapacity = capacity;
+		while (this.freeCount > capacity) {
+			HeapNode node = this.freeNodes;
+			this.freeNodes = node.right;
+			node.right = null;
+			this.freeCount--;
+		}
+	}
+
+	public int nodePoolCapacity() {
+		return this.nodePoolCapacity;
+	}
+
+	/**
+	 * consolidates the root list by linking roots of equal degree until at most one root remains of each degree.
+	 * linked trees are removed from the root list as they are linked, so the roots that are left in place
+	 * are exactly the trees in the rank table. the table is kept between calls and only grows when a
+	 * higher rank shows up, so consolidating allocates nothing
+	 *
+	 * @return the number of roots left
+	 */
+	private int consolidate() {
+		if (this.size == 0) {
+			// heap is empty, no action needed
+			return 0;
+		}
+
+		HeapNode[] treesByRank = this.treesByRank;
+		int maxRank = -1;
+		int rootListLength = 0;
+		HeapNode root = this.sentinel.right;
+		while (!root.isSentinel()) {
+			HeapNode next = root.right;
+			rootListLength++;
+			int rank = root.rank;
+			// while there are other trees with the same rank, link them
+			while (true) {
+				if (rank >= treesByRank.length) {
+					treesByRank = growRankTable(rank + 1);
+				}
+				HeapNode x = treesByRank[rank];
+				if (x == null) {
+					break;
+				}
+				root = link(x, root);
+				this.potential--; // each link reduces one tree
+				treesByRank[rank] = null;
+				rank++;
+			}
+			// store tree in the array at index = rank
+			treesByRank[rank] = root;
+			if (rank > maxRank) {
+				maxRank = rank;
+			}
+			root = next;
+		}
+
+		// find the new minimum among the remaining roots and clear the table for the next call
+		int roots = 0;
+		for (int i = 0; i <= maxRank; i++) {
+			HeapNode tree = treesByRank[i];
+			if (tree != null) {
+				treesByRank[i] = null;
+				roots++;
+				if (this.min == null || tree.key < this.min.key) {
+					this.min = tree;
+				}
+			}
+		}
+		if (this.metrics != null) {
+			this.metrics.consolidate(rootListLength, maxRank);
+		}
+		return roots;
+	}
+
+	private HeapNode[] growRankTable(int minLength) {
+		this.treesByRank = Arrays.copyOf(this.treesByRank, Math.max(minLength, 2 * this.treesByRank.length));
+		return this.treesByRank;
+	}
+
+	/**
+	 * makes up to steps consolidation steps in incremental mode, or as many as needed to leave no pending
+	 * roots. the rank table is kept between calls and holds the consolidated roots, which sit at the back of
+	 * the root list, while the pending roots sit at its front. a step takes the first pending root, and
+	 * either moves it to the table if its rank is free, or links it with the tree of the same rank in the
+	 * table and leaves the linked tree pending. either way the number of pending roots doubled plus the
+	 * number of trees in the table drops by one, so two steps per added root keep the pending roots few
+	 */
+	private void consolidateSteps(int steps) {
+		HeapNode[] treesByRank = this.treesByRank;
+		for (int i = 0; i < steps && this.pendingRoots > 0; i++) {
+			HeapNode root = this.sentinel.right;
+			int rank = root.rank;
+			if (rank >= treesByRank.length) {
+				treesByRank = growRankTable(rank + 1);
+			}
+			HeapNode x = treesByRank[rank];
+			if (x == null) {
+				treesByRank[rank] = root;
+				this.sentinel.deleteSibling(root);
+				this.sentinel.left.appendSibling(root);
+				this.pendingRoots--;
+				continue;
+			}
+			treesByRank[rank] = null;
+			HeapNode tree = link(x, root);
+			this.potential--; // each link reduces one tree
+			if (tree == x) {
+				// the tree left the table, and is pending until its new rank is placed
+				this.sentinel.deleteSibling(x);
+				this.sentinel.appendSibling(x);
+			}
+			if ((tree == x ? root : x) == this.min) {
+				// the minimum lost a link to a root with an equal key
+				this.min = tree;
+			}
+		}
+	}
+
+	/**
+	 * Turns incremental consolidation on or off. deleteMin normally consolidates the whole root list, so
+	 * the first deleteMin after n inserts takes O(n). in incremental mode every insert, decreaseKey and
+	 * deleteMin makes a few consolidation steps of its own, and deleteMin only looks at the O(log n) roots
+	 * that are left, which bounds the work of each call at O(log n) rather than amortizing it. the total
+	 * work is about the same, paid for evenly.
+	 * meld and insertAll link the trees they add right away in this mode, so they take time linear in the
+	 * number of roots they add. turning the mode on consolidates the heap once.
+	 */
+	public void setIncrementalConsolidation(boolean incremental) {
+		if (incremental == this.incrementalConsolidation) {
+			return;
+		}
+		if (incremental) {
+			applyDecreases();
+			// every root is pending, the rank table is empty between consolidations
+			this.pendingRoots = 0;
+			for (HeapNode root = this.sentinel.right; !root.isSentinel(); root = root.right) {
+				this.pendingRoots++;
+			}
+			this.incrementalConsolidation = true;
+			consolidateSteps(Integer.MAX_VALUE);
+		} else {
+			Arrays.fill(this.treesByRank, null);
+			this.pendingRoots = 0;
+			this.incrementalConsolidation = false;
+		}
+	}
+
+	public boolean isIncrementalConsolidation() {
+		return this.incrementalConsolidation;
+	}
+
+	/**
+	 * links 2 trees of the same rank by making the tree with the bigger root key a child of the other.
+	 *
+	 * @return the linked tree
+	 * @precondition - the 2 trees are of the same rank
+	 */
+	private HeapNode link(HeapNode y, HeapNode x) {
+		if (x.key > y.key) {
+			return link(x, y);
+		} else {
+			this.sentinel.deleteSibling(y);
+			if (x.child == null) {
+				x.child = createSentinel();
+			}
+			x.child.appendSibling(y);
+			x.rank++;
+			y.parent = x;
+			if (y.isMarked) {
+				y.isMarked = false;
+				this.potential -= 2;
+			}
+			if (this.metrics != null) {
+				this.metrics.link();
+			}
+			return x;
+		}
+	}
+
+	/**
+	 * Return the node of the heap whose key is minimal.
+	 */
+	public HeapNode findMin() {
+		return this.min;
+	}
+
+	/**
+	 * Meld the heap with heap2 in O(1). the nodes of heap2 move to this heap, and heap2 is left empty
+	 * and can be reused. the owner of the nodes of heap2 is forwarded to the owner of this heap rather
+	 * than changed in every node, see contains.
+	 */
+	public void meld(FibonacciHeap heap2) {
+		if (heap2 == null || heap2 == this || heap2.size == 0) { //heap2 is empty. nothing to meld
+			return;
+		}
+		// the trees of both heaps must be in order before they are joined
+		applyDecreases();
+		heap2.applyDecreases();
+		int heap2Roots = 0;
+		if (this.incrementalConsolidation) {
+			// the roots of heap2 land at the front of the root list, where the pending roots are
+			for (HeapNode root = heap2.sentinel.right; !root.isSentinel(); root = root.right) {
+				heap2Roots++;
+			}
+		}
+		if (this.size == 0) { // this heap is empty, just copy pointers
+			this.min = heap2.min;
+			this.sentinel = heap2.sentinel;
+			this.size = heap2.size;
+			this.potential = heap2.potential;
+
+		} else {
+			if (heap2.min.key < this.min.key) {
+				this.min = heap2.min;
+			}
+			this.size += heap2.size;
+			this.potential += heap2.potential;
+			HeapNode first = this.sentinel.right;
+			heap2.sentinel.right.left = this.sentinel;
+			heap2.sentinel.left.right = first;
+			first.left = heap2.sentinel.left;
+			this.sentinel.right = heap2.sentinel.right;
+
+		}
+		heap2.owner.next = this.owner;
+		heap2.reset();
+		if (this.incrementalConsolidation) {
+			this.pendingRoots += heap2Roots;
+			consolidateSteps(2 * heap2Roots + INCREMENTAL_EXTRA_STEPS);
+		}
+	}
+
+	/**
+	 * empties the heap after its nodes were melded into another heap, keeping its modes, metrics and tables
+	 */
+	private void reset() {
+		this.sentinel = createSentinel();
+		this.min = null;
+		this.size = 0;
+		this.potential = 0;
+		this.owner = new Owner();
+		if (this.incrementalConsolidation) {
+			Arrays.fill(this.treesByRank, null);
+			this.pendingRoots = 0;
+		}
+	}
+
+	/**
+	 * Returns true if and only if x is in this heap: it was inserted into this heap, or into a heap that
+	 * was melded into it, and wasn't deleted.
+	 * every heap has an owner object, which its nodes point to, and meld forwards the owner of heap2 to
+	 * the owner of this heap. the check follows the forwards to the current owner and points the node and
+	 * the owners on the way straight at it, so a chain of melds is followed once.
+	 */
+	public boolean contains(HeapNode x) {
+		Owner owner = x.owner;
+		if (owner == null) {
+			return false;
+		}
+		Owner current = owner;
+		while (current.next != null) {
+			current = current.next;
+		}
+		while (owner != current) {
+			Owner next = owner.next;
+			owner.next = current;
+			owner = next;
+		}
+		x.owner = current;
+		return current == this.owner;
+	}
+
+	/**
+	 * Returns true if and only if x is in this heap and it is still the element it was when its generation
+	 * was read, see setNodePoolCapacity.
+	 */
+	public boolean contains(HeapNode x, int generation) {
+		return x.generation == generation && contains(x);
+	}
+
+	/**
+	 * Turns the ownership check on or off. with the check on, decreaseKey and delete throw
+	 * IllegalArgumentException for a node that isn't in this heap, see contains, instead of corrupting
+	 * the heap the node is in. the check costs a few reads per call.
+	 */
+	public void setOwnershipCheck(boolean check) {
+		this.ownershipCheck = check;
+	}
+
+	public boolean isOwnershipCheck() {
+		return this.ownershipCheck;
+	}
+
+	/**
+	 * Return the number of elements in the heap
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return a counters array, where the value of the i-th entry is the number
+	 * of trees of order i in the heap.
+	 */
+	public int[] countersRep() {
+		applyDecreases();
+		int arraySize = (int) (5 * Math.log10(this.size + 1));
+		int[] arr = new int[arraySize];
+		for (HeapNode node : this) {
+			arr[node.rank]++;
+		}
+		return arr;
+	}
+
+	/**
+	 * Deletes the node x from the heap.
+	 * unless x is the minimum, x is cut from its parent and its children join the root list, without
+	 * consolidating - the minimum stays where it is, and the next deleteMin links the new roots.
+	 * deleting the minimum is a deleteMin.
+	 */
+	public void delete(HeapNode x) {
+		if (this.ownershipCheck && !contains(x)) {
+			throw new IllegalArgumentException("the node isn't in this heap");
+		}
+		applyDecreases();
+		if (x == this.min) {
+			deleteMin();
+			return;
+		}
+		int pendingBefore = this.pendingRoots;
+		makeRoot(x);
+		if (this.incrementalConsolidation) {
+			if (x.rank < this.treesByRank.length && this.treesByRank[x.rank] == x) {
+				this.treesByRank[x.rank] = null;
+			} else {
+				this.pendingRoots--;
+			}
+			this.pendingRoots += x.rank; // removeRoot puts the children at the front of the root list
+		}
+		removeRoot(x);
+		if (this.incrementalConsolidation) {
+			consolidateSteps(2 * Math.max(0, this.pendingRoots - pendingBefore) + INCREMENTAL_EXTRA_STEPS);
+		}
+	}
+
+	/**
+	 * Deletes the node x from the heap, if it is still in the heap with the given generation.
+	 *
+	 * @throws IllegalArgumentException if it isn't, see contains
+	 */
+	public void delete(HeapNode x, int generation) {
+		checkHandle(x, generation);
+		delete(x);
+	}
+
+	/**
+	 * Decreases the key of the node x by delta, if it is still in the heap with the given generation.
+	 *
+	 * @throws IllegalArgumentException if it isn't, see contains
+	 */
+	public void decreaseKey(HeapNode x, int generation, int delta) {
+		checkHandle(x, generation);
+		decreaseKey(x, delta);
+	}
+
+	private void checkHandle(HeapNode x, int generation) {
+		if (!contains(x, generation)) {
+			throw new IllegalArgumentException("the node isn't in this heap, or was deleted and reused");
+		}
+	}
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 * pre-condition: the node is in the heap
+	 */
+	public void decreaseKey(HeapNode x, int delta) {
+		if (this.ownershipCheck && !contains(x)) {
+			throw new IllegalArgumentException("the node isn't in this heap");
+		}
+		// subtract delta from x.key
+		setSmallerKey(x, x.key - delta);
+	}
+
+	/**
+	 * The function sets the key of the node x to newKey, which must not be bigger than its current key.
+	 * pre-condition: the node is in the heap
+	 *
+	 * @throws IllegalArgumentException if newKey is bigger than the key of x
+	 */
+	public void decreaseKeyTo(HeapNode x, int newKey) {
+		if (this.ownershipCheck && !contains(x)) {
+			throw new IllegalArgumentException("the node isn't in this heap");
+		}
+		if (newKey > x.key) {
+			throw new IllegalArgumentException("new key " + newKey + " is bigger than the key " + x.key);
+		}
+		setSmallerKey(x, newKey);
+	}
+
+	private void setSmallerKey(HeapNode x, int newKey) {
+		x.key = newKey;
+
+		if (this.lazyDecreaseKey) {
+			// only log the node, applyDecreases will cut it if needed. a node is logged once however many
+			// times it is decreased, since its key already holds the result of all the decreases
+			if (!x.isPending && x.parent != null) {
+				x.isPending = true;
+				if (this.pendingCount == this.pendingDecreases.length) {
+					this.pendingDecreases = Arrays.copyOf(this.pendingDecreases,
+							Math.max(INITIAL_RANK_TABLE_SIZE, 2 * this.pendingCount));
+				}
+				this.pendingDecreases[this.pendingCount++] = x;
+			}
+			if (x.key < this.min.key) {
+				// min may now point at a child, applyDecreases cuts it before anything needs the min to be a root
+				this.min = x;
+			}
+			return;
+		}
+
+		int cuts = 0;
+		int pendingBefore = this.pendingRoots;
+		HeapNode parent = x.parent;
+		if (parent != null && x.key < parent.key) {
+			// if the heap rule is broken, cut x from its parent
+			cut(x, parent);
+			// mark the parent or continue cutting if parent is already marked
+			cuts = 1 + cascadingCut(parent);
+		}
+		if (this.metrics != null) {
+			this.metrics.cutDepth(cuts);
+		}
+
+		// update the minimum if necessary
+		if (x.key < this.min.key) {
+			this.min = x;
+		}
+		if (this.incrementalConsolidation) {
+			consolidateSteps(2 * (this.pendingRoots - pendingBefore) + INCREMENTAL_EXTRA_STEPS);
+		}
+	}
+
+	/**
+	 * The function increases the key of the node x by delta.
+	 * pre-condition: the node is in the heap
+	 */
+	public void increaseKey(HeapNode x, int delta) {
+		increaseKeyTo(x, x.key + delta);
+	}
+
+	/**
+	 * The function sets the key of the node x to newKey, which must not be smaller than its current key.
+	 * x is cut from its parent like a decreased node, and the children that are now smaller than x are cut
+	 * from it and join the root list. if x was the minimum, the root list is consolidated to find the new one.
+	 * pre-condition: the node is in the heap
+	 *
+	 * @throws IllegalArgumentException if newKey is smaller than the key of x
+	 */
+	public void increaseKeyTo(HeapNode x, int newKey) {
+		if (this.ownershipCheck && !contains(x)) {
+			throw new IllegalArgumentException("the node isn't in this heap");
+		}
+		if (newKey < x.key) {
+			throw new IllegalArgumentException("new key " + newKey + " is smaller than the key " + x.key);
+		}
+		applyDecreases();
+		boolean wasMin = x == this.min;
+		int pendingBefore = this.pendingRoots;
+		makeRoot(x);
+		x.key = newKey;
+		if (x.child != null) {
+			HeapNode child = x.child.right;
+			while (!child.isSentinel()) {
+				HeapNode next = child.right;
+				if (child.key < newKey) {
+					cut(child, x);
+				}
+				child = next;
+			}
+		}
+		if (this.incrementalConsolidation) {
+			// the steps may link x under another root and make that root the minimum, so x is checked first
+			consolidateSteps(2 * (this.pendingRoots - pendingBefore) + INCREMENTAL_EXTRA_STEPS);
+			if (wasMin) {
+				findMinIncremental();
+			}
+		} else if (wasMin) {
+			this.min = null; // consolidate function will find the new minimum
+			consolidate();
+		}
+	}
+
+	/**
+	 * cuts x from its parent, if it has one, and marks the parent or continues cutting up the tree
+	 */
+	private void makeRoot(HeapNode x) {
+		HeapNode parent = x.parent;
+		if (parent == null) {
+			return;
+		}
+		cut(x, parent);
+		int cuts = 1 + cascadingCut(parent);
+		if (this.metrics != null) {
+			this.metrics.cutDepth(cuts);
+		}
+	}
+
+	/**
+	 * Turns lazy decreaseKey on or off. in lazy mode decreaseKey only updates the key and the minimum, and logs
+	 * the node. the cuts are made for all the logged nodes at once by applyDecreases, which the heap calls
+	 * before deleteMin, delete, meld and any method that walks the trees. turning lazy mode off applies the
+	 * logged decreases.
+	 * between decreaseKey and the next deleteMin a node may be smaller than its parent, so in lazy mode
+	 * findMin returns the minimum but the minimum may not be a root until the decreases are applied.
+	 */
+	public void setLazyDecreaseKey(boolean lazy) {
+		if (!lazy) {
+			applyDecreases();
+		}
+		this.lazyDecreaseKey = lazy;
+	}
+
+	public boolean isLazyDecreaseKey() {
+		return this.lazyDecreaseKey;
+	}
+
+	/**
+	 * Cuts every logged node that is now smaller than its parent, see setLazyDecreaseKey.
+	 * the cuts are coalesced per parent: all the nodes are cut first, and then each parent that lost
+	 * children goes through cascadingCut once. a parent that lost two or more children is cut like a
+	 * marked parent would be, which is what cutting them one by one would have done.
+	 * a node that was decreased several times was logged once, so it is visited once.
+	 */
+	public void applyDecreases() {
+		int count = this.pendingCount;
+		if (count == 0) {
+			return;
+		}
+		HeapNode[] pending = this.pendingDecreases;
+		if (this.cutParents.length < count) {
+			this.cutParents = new HeapNode[pending.length];
+		}
+		HeapNode[] parents = this.cutParents;
+		int parentCount = 0;
+
+		// cut the nodes that broke the heap rule and collect their parents, each parent once
+		for (int i = 0; i < count; i++) {
+			HeapNode x = pending[i];
+			pending[i] = null;
+			x.isPending = false;
+			HeapNode parent = x.parent;
+			// the minimum must be a root, so it is cut even when a later decrease of its parent made their
+			// keys equal
+			if (parent == null || (x.key >= parent.key && x != this.min)) {
+				if (this.metrics != null) {
+					this.metrics.cutDepth(0);
+				}
+				continue;
+			}
+			cut(x, parent);
+			if (!parent.lostChild) {
+				parent.lostChild = true;
+				parents[parentCount++] = parent;
+			} else if (!parent.isMarked && parent.parent != null) {
+				// a second child was lost in this batch, so the parent has to go like a marked one
+				parent.isMarked = true;
+				this.potential += 2;
+			}
+		}
+		this.pendingCount = 0;
+
+		// mark the parents or continue cutting up the tree, once per parent
+		for (int i = 0; i < parentCount; i++) {
+			HeapNode parent = parents[i];
+			parents[i] = null;
+			parent.lostChild = false;
+			int cuts = 1 + cascadingCut(parent);
+			if (this.metrics != null) {
+				this.metrics.cutDepth(cuts);
+			}
+		}
+	}
+
+	/**
+	 * removes a node from its parent's children list,
+	 * and adds it as a root in the root list
+	 */
+	private void cut(HeapNode node, HeapNode parent) {
+		if (this.incrementalConsolidation && parent.parent == null && parent.rank < this.treesByRank.length
+				&& this.treesByRank[parent.rank] == parent) {
+			// the rank of the parent is about to change, so it can't stay in the rank table
+			this.treesByRank[parent.rank] = null;
+			this.sentinel.deleteSibling(parent);
+			this.sentinel.appendSibling(parent);
+			this.pendingRoots++;
+		}
+		// remove node from parent's children list and lower parent's rank
+		parent.child.deleteSibling(node);
+		parent.rank--;
+
+		// append node to root list and set its parent to null
+		this.sentinel.appendSibling(node);
+		node.parent = null;
+		this.potential++; //each cut adds another tree
+		if (this.incrementalConsolidation) {
+			this.pendingRoots++;
+		}
+
+		// if node was marked then unmark it
+		if (node.isMarked) {
+			node.isMarked = false;
+			this.potential -= 2;
+		}
+		if (this.metrics != null) {
+			this.metrics.cut();
+		}
+	}
+
+	/**
+	 * gets a node that one of his children was cut from him
+	 * if the node wasn't marked then the function marks it
+	 * if the node was already marked then the function cuts it from its parent,
+	 * and then continues in the same way with the parent.
+	 * the walk up the tree is a loop, so long chains of marked nodes don't grow the call stack
+	 *
+	 * @return the number of cuts made
+	 */
+	private int cascadingCut(HeapNode node) {
+		int cuts = 0;
+		HeapNode parent = node.parent;
+		// if node is a root no action needed
+		while (parent != null) {
+			if (!node.isMarked) {
+				// if node was not marked, mark it
+				node.isMarked = true;
+				this.potential += 2;
+				break;
+			}
+			// node was already marked, cut it from its parent and continue with the parent
+			cut(node, parent);
+			cuts++;
+			node = parent;
+			parent = node.parent;
+		}
+		return cuts;
+	}
+
+	/**
+	 * This function returns the current potential of the heap, which is:
+	 * Potential = #trees + 2*#marked The potential equals to the number of
+	 * trees in the heap plus twice the number of marked nodes in the heap.
+	 */
+	public int potential() {
+		applyDecreases();
+		return this.potential;
+	}
+
+	/**
+	 * returns an iterator for the heap's root list
+	 */
+	@Override
+	public Iterator<HeapNode> iterator() {
+		applyDecreases();
+		return new HeapNodeIterator(this.sentinel);
+	}
+
+	/**
+	 * returns an iterator over the keys of the heap in ascending order, which leaves the heap as it is.
+	 * taking the first k keys visits the roots, the k nodes and their children, see SortedIterator.
+	 * the iterator must not be used after the heap is changed
+	 */
+	public PrimitiveIterator.OfInt sortedIterator() {
+		applyDecreases();
+		return new SortedIterator(this.sentinel);
+	}
+
+	/**
+	 * returns a sequential stream of the keys of the heap in ascending order, which leaves the heap as it is.
+	 * the keys are produced as the stream pulls them, so heap.sortedStream().limit(k) costs about as much as
+	 * the k keys it returns. the stream must not be used after the heap is changed
+	 */
+	public IntStream sortedStream() {
+		return StreamSupport.intStream(Spliterators.spliterator(sortedIterator(), this.size,
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL), false);
+	}
+
+	public void print() {
+		try {
+			print(System.out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * writes the trees of the heap, its potential and its counters to out
+	 */
+	public void print(Appendable out) throws IOException {
+		out.append("***************************************** Beginnig of output **********************************\n");
+		for (HeapNode root : this) {
+			root.print(out);
+		}
+		out.append("Potential: ").append(String.valueOf(this.potential())).append('\n');
+		out.append(Arrays.toString(this.countersRep())).append('\n');
+		out.append("***************************************** End of output **********************************\n");
+	}
+
+	/**
+	 * Writes the trees of the heap to out, see writeTo(WritableByteChannel).
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		writeTo(Channels.newChannel(out));
+	}
+
+	/**
+	 * Writes the trees of the heap to out, in a form readFrom restores the same trees from.
+	 * a header of 6 ints (magic, version, size, number of trees, potential, preorder index of the minimum) is
+	 * followed by the nodes of every tree in preorder, 5 bytes per node: the key, and a byte holding the rank
+	 * and the mark of the node.
+	 * the heap isn't changed, but pending lazy decreases are applied first. out isn't closed.
+	 */
+	public void writeTo(WritableByteChannel out) throws IOException {
+		applyDecreases();
+		int trees = 0;
+		int minIndex = -1;
+		int nodes = 0;
+		for (HeapNode root = this.sentinel.right; !root.isSentinel(); root = root.right) {
+			trees++;
+			if (root == this.min) {
+				minIndex = nodes;
+			} else if (minIndex < 0) {
+				nodes += treeSize(root);
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_BUFFER_SIZE);
+		buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(this.size).putInt(trees).putInt(this.potential)
+				.putInt(minIndex);
+
+		for (HeapNode root = this.sentinel.right; !root.isSentinel(); root = root.right) {
+			// walk the tree in preorder through the parent and sibling pointers, like HeapNode.print
+			HeapNode node = root;
+			while (true) {
+				if (buffer.remaining() < 5) {
+					flush(buffer, out);
+				}
+				buffer.putInt(node.key).put((byte) (node.rank << 1 | (node.isMarked ? 1 : 0)));
+
+				HeapNode first = node.firstChild();
+				if (first != null) {
+					node = first;
+					continue;
+				}
+				while (node != root && node.right.isSentinel()) {
+					node = node.parent;
+				}
+				if (node == root) {
+					break;
+				}
+				node = node.right;
+			}
+		}
+		flush(buffer, out);
+	}
+
+	/**
+	 * returns the number of nodes in the tree of root, walking it like writeTo
+	 */
+	private static int treeSize(HeapNode root) {
+		int count = 0;
+		HeapNode node = root;
+		while (true) {
+			count++;
+			HeapNode first = node.firstChild();
+			if (first != null) {
+				node = first;
+				continue;
+			}
+			while (node != root && node.right.isSentinel()) {
+				node = node.parent;
+			}
+			if (node == root) {
+				return count;
+			}
+			node = node.right;
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Restores a heap written by writeTo, see readFrom(ReadableByteChannel, FibonacciHeapMetrics).
+	 */
+	public static FibonacciHeap readFrom(InputStream in) throws IOException {
+		return readFrom(Channels.newChannel(in), new FibonacciHeapMetrics());
+	}
+
+	/**
+	 * Restores a heap written by writeTo, see readFrom(ReadableByteChannel, FibonacciHeapMetrics).
+	 */
+	public static FibonacciHeap readFrom(ReadableByteChannel in) throws IOException {
+		return readFrom(in, new FibonacciHeapMetrics());
+	}
+
+	/**
+	 * Restores a heap written by writeTo, counting its operations in the given metrics.
+	 * the nodes are hung back in their places one by one, without linking or comparing them, so the trees,
+	 * their order, the marks, the node findMin returns, potential() and countersRep() are those of the written
+	 * heap. snapshots of version 1, which don't record the minimum, get the first root with the smallest key.
+	 * the nodes of the restored heap are new objects. in is read up to the end of the heap and no further.
+	 *
+	 * @throws IOException if reading fails, or in doesn't hold a valid heap
+	 */
+	public static FibonacciHeap readFrom(ReadableByteChannel in, FibonacciHeapMetrics metrics) throws IOException {
+		SnapshotInput input = new SnapshotInput(in, 20);
+		ByteBuffer buffer = input.buffer;
+		input.fill(20);
+		if (buffer.getInt() != SNAPSHOT_MAGIC) {
+			throw new IOException("not a heap snapshot");
+		}
+		int version = buffer.getInt();
+		if (version != 1 && version != SNAPSHOT_VERSION) {
+			throw new IOException("unsupported snapshot version " + version);
+		}
+		int size = buffer.getInt();
+		int trees = buffer.getInt();
+		int potential = buffer.getInt();
+		if (size < 0 || trees < 0 || trees > size) {
+			throw new IOException("corrupt snapshot: " + size + " nodes in " + trees + " trees");
+		}
+		int minIndex = -1;
+		if (version != 1) {
+			input.unread = 4;
+			input.fill(4);
+			minIndex = buffer.getInt();
+			if (size == 0 ? minIndex != -1 : minIndex < 0 || minIndex >= size) {
+				throw new IOException("corrupt snapshot: minimum at " + minIndex + " of " + size + " nodes");
+			}
+		}
+		input.unread = 5L * size;
+
+		FibonacciHeap heap = new FibonacciHeap(metrics);
+		// the nodes whose children are still being read, and how many of their children are left
+		HeapNode[] parents = new HeapNode[INITIAL_RANK_TABLE_SIZE];
+		int[] childrenLeft = new int[INITIAL_RANK_TABLE_SIZE];
+		int read = 0;
+		int marked = 0;
+		for (int t = 0; t < trees; t++) {
+			int depth = 0;
+			do {
+				if (read == size) {
+					throw new IOException("corrupt snapshot: more than " + size + " nodes");
+				}
+				input.fill(5);
+				HeapNode node = new HeapNode(buffer.getInt(), heap.owner);
+				int rankAndMark = buffer.get() & 0xff;
+				node.rank = rankAndMark >>> 1;
+				node.isMarked = (rankAndMark & 1) != 0;
+				read++;
+				if (node.isMarked) {
+					marked++;
+				}
+
+				if (depth == 0) {
+					heap.sentinel.left.appendSibling(node);
+					if (version == 1 ? heap.min == null || node.key < heap.min.key : read - 1 == minIndex) {
+						heap.min = node;
+					}
+				} else {
+					HeapNode parent = parents[depth - 1];
+					if (parent.child == null) {
+						parent.child = createSentinel();
+					}
+					parent.child.left.appendSibling(node);
+					node.parent = parent;
+					if (--childrenLeft[depth - 1] == 0) {
+						depth--;
+					}
+				}
+				if (node.rank > 0) {
+					if (depth == parents.length) {
+						parents = Arrays.copyOf(parents, 2 * depth);
+						childrenLeft = Arrays.copyOf(childrenLeft, 2 * depth);
+					}
+					parents[depth] = node;
+					childrenLeft[depth] = node.rank;
+					depth++;
+				}
+			} while (depth > 0);
+		}
+		heap.size = read;
+		heap.potential = trees + 2 * marked;
+		if (size > 0 && heap.min == null) {
+			throw new IOException("corrupt snapshot: the minimum at " + minIndex + " isn't a root");
+		}
+		for (HeapNode root = heap.sentinel.right; !root.isSentinel(); root = root.right) {
+			if (root.key < heap.min.key) {
+				throw new IOException("corrupt snapshot: the minimum at " + minIndex + " isn't the smallest root");
+			}
+		}
+		if (read != size || heap.potential != potential) {
+			throw new IOException("corrupt snapshot: " + read + " nodes and potential " + heap.potential
+					+ " instead of " + size + " and " + potential);
+		}
+		return heap;
+	}
+
+	/**
+	 * a channel read through a buffer, which never reads more than the unread bytes of the snapshot
+	 */
+	private static final class SnapshotInput {
+		final ReadableByteChannel in;
+		final ByteBuffer buffer;
+		long unread;
+
+		SnapshotInput(ReadableByteChannel in, long unread) {
+			this.in = in;
+			this.buffer = ByteBuffer.allocate(SNAPSHOT_BUFFER_SIZE);
+			this.buffer.flip();
+			this.unread = unread;
+		}
+
+		/**
+		 * reads until the buffer holds at least count bytes
+		 */
+		void fill(int count) throws IOException {
+			ByteBuffer buffer = this.buffer;
+			if (buffer.remaining() >= count) {
+				return;
+			}
+			buffer.compact();
+			buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + this.unread));
+			while (buffer.position() < count) {
+				int n = this.in.read(buffer);
+				if (n < 0 || !buffer.hasRemaining() && buffer.position() < count) {
+					throw new EOFException("snapshot ends in the middle of the heap");
+				}
+				this.unread -= n;
+			}
+			buffer.flip();
+		}
+	}
+
+	/**
+	 * returns the operation counters of the heap, or null if the heap was created without metrics
+	 */
+	public FibonacciHeapMetrics metrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * This static function returns the total number of link operations made
+	 * during the run-time of the program by the heaps whose metrics aggregate, which heaps opt into with
+	 * new FibonacciHeap(new FibonacciHeapMetrics(true)). A link operation is the
+	 * operation which gets as input two trees of the same rank, and generates a tree of
+	 * rank bigger by one, by hanging the tree which has larger value in its
+	 * root on the tree which has smaller value in its root.
+	 *
+	 * @deprecated use metrics().links() for a single heap, or FibonacciHeapMetrics.globalLinks()
+	 */
+	@Deprecated
+	public static int totalLinks() {
+		return (int) FibonacciHeapMetrics.globalLinks();
+	}
+
+	/**
+	 * This static function returns the total number of cut operations made
+	 * during the run-time of the program by the heaps whose metrics aggregate, see totalLinks. A cut
+	 * operation is the operation which diconnects a subtree from its parent (during decreaseKey/delete
+	 * methods).
+	 *
+	 * @deprecated use metrics().cuts() for a single heap, or FibonacciHeapMetrics.globalCuts()
+	 */
+	@Deprecated
+	public static int totalCuts() {
+		return (int) FibonacciHeapMetrics.globalCuts();
+	}
+
+	/**
+	 * the owner of the nodes of a heap. next is the owner it was forwarded to by a meld,
+	 * null while it belongs to a heap
+	 */
+	private static final class Owner {
+		Owner next;
+	}
+
+	/**
+	 * class represent a node in the heap
+	 * implements iterable - iteration is over child nodes
+	 */
+	public static class HeapNode implements Iterable<HeapNode>, MeldableHeap.Node {
+
+		int key;
+		HeapNode parent;
+		HeapNode right;
+		HeapNode left;
+		HeapNode child;
+		boolean isMarked;
+		private int rank;
+		private final boolean isSentinel;
+		private boolean isPending; // logged by a lazy decreaseKey
+		private boolean lostChild; // a child was cut from it by the current applyDecreases
+		private Owner owner; // null if the node isn't in a heap
+		private int generation; // the number of times the node was reused by the node pool
+
+		/**
+		 * creates a node that doesn't belong to any heap
+		 */
+		public HeapNode(int key) {
+			this(key, null);
+		}
+
+		private HeapNode(int key, Owner owner) {
+			this.key = key;
+			this.owner = owner;
+			this.parent = null;
+			this.right = this;
+			this.left = this;
+			this.child = null; // created by the first link under this node
+			this.isMarked = false;
+			this.rank = 0;
+			this.isSentinel = false;
+		}
+
+		/**
+		 * empty constructor to create sentinels
+		 */
+		private HeapNode() {
+			this.isSentinel = true;
+		}
+
+		public int getKey() {
+			return this.key;
+		}
+
+		/**
+		 * appends a node to the list of siblings
+		 * function assumes that there's always a sentinel node in the list
+		 */
+		public void appendSibling(HeapNode node) {
+			node.left = this;
+			node.right = this.right;
+			node.right.left = node;
+			this.right = node;
+		}
+
+		/**
+		 * deletes a node from the list of siblings
+		 * function assumes that there's always a sentinel node in the list
+		 */
+		public void deleteSibling(HeapNode node) {
+			node.left.right = node.right;
+			node.right.left = node.left;
+		}
+
+		public boolean isSentinel() {
+			return this.isSentinel;
+		}
+
+		/**
+		 * returns the number of times the node was deleted and reused, see setNodePoolCapacity
+		 */
+		public int getGeneration() {
+			return this.generation;
+		}
+
+		/**
+		 * returns the first child of the node, or null if it has none
+		 */
+		HeapNode firstChild() {
+			return this.child == null || this.child.right.isSentinel() ? null : this.child.right;
+		}
+
+		@Override
+		/**
+		 * returns an iterator for the list of children
+		 */
+		public Iterator<HeapNode> iterator() {
+			if (this.child == null) {
+				return Collections.emptyIterator();
+			}
+			return new HeapNodeIterator(this.child);
+		}
+
+		public void print() {
+			try {
+				print(System.out);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * writes the tree rooted at this node to out, one node per line.
+		 * the tree is walked through the parent and sibling pointers rather than by recursion,
+		 * and the prefix of the current depth is kept in a single StringBuilder,
+		 * so deep trees need neither a deep call stack nor a new prefix String per node
+		 */
+		public void print(Appendable out) throws IOException {
+			StringBuilder prefix = new StringBuilder();
+			HeapNode node = this;
+			boolean isTail = true;
+			while (true) {
+				out.append(prefix).append(isTail ? "└── " : "├── ").append(String.valueOf(node.key));
+				out.append(node.isMarked ? "*\n" : "\n");
+
+				HeapNode first = node.firstChild();
+				if (first != null) {
+					// continue with the first child, one level deeper
+					prefix.append(isTail ? "    " : "│   ");
+					node = first;
+				} else {
+					// go up until reaching a node that has a next sibling, or back to this node
+					while (node != this && node.right.isSentinel()) {
+						node = node.parent;
+						prefix.setLength(prefix.length() - 4);
+					}
+					if (node == this) {
+						return;
+					}
+					node = node.right;
+				}
+				isTail = node.right.isSentinel();
+			}
+		}
+
+	}
+
+	/**
+	 * builds keys[from] ... keys[to - 1] into a consolidated heap, splitting ranges longer than
+	 * PARALLEL_BUILD_THRESHOLD in two. the heaps of the tasks don't count their operations
+	 */
+	private static final class BuildTask extends RecursiveTask<FibonacciHeap> {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] keys;
+		private final HeapNode[] nodes;
+		private final int from;
+		private final int to;
+
+		BuildTask(int[] keys, HeapNode[] nodes, int from, int to) {
+			this.keys = keys;
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected FibonacciHeap compute() {
+			if (this.to - this.from <= PARALLEL_BUILD_THRESHOLD) {
+				FibonacciHeap heap = new FibonacciHeap(null);
+				heap.bulkInsert(this.keys, this.from, this.to - this.from, true, this.nodes, this.from);
+				return heap;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			BuildTask right = new BuildTask(this.keys, this.nodes, middle, this.to);
+			right.fork();
+			FibonacciHeap heap = new BuildTask(this.keys, this.nodes, this.from, middle).compute();
+			heap.meld(right.join());
+			// the rank-merge pass: both heaps were consolidated, so this links at most two trees of each rank
+			heap.min = null; // consolidate function will find the new minimum
+			heap.consolidate();
+			return heap;
+		}
+	}
+
+	/**
+	 * iterates over the keys of a heap in ascending order without changing it, by keeping a binary heap of
+	 * the frontier: the nodes whose parent was already returned, starting with the roots. the smallest node
+	 * of the frontier is the next key, and it is replaced by its children. the frontier holds the roots and
+	 * the children of the returned nodes, so it never grows past r + k * maxRank for k returned keys
+	 */
+	private static final class SortedIterator implements PrimitiveIterator.OfInt {
+		private static final int MIN_CAPACITY = 64;
+		private HeapNode[] frontier;
+		private int[] keys; // the keys of the frontier nodes, so comparing them doesn't read the nodes
+		private int count;
+
+		SortedIterator(HeapNode sentinel) {
+			int roots = 0;
+			for (HeapNode root = sentinel.right; !root.isSentinel(); root = root.right) {
+				roots++;
+			}
+			int capacity = Math.max(MIN_CAPACITY, 2 * roots);
+			this.frontier = new HeapNode[capacity];
+			this.keys = new int[capacity];
+			for (HeapNode root = sentinel.right; !root.isSentinel(); root = root.right) {
+				this.frontier[this.count] = root;
+				this.keys[this.count++] = root.key;
+			}
+			for (int i = this.count / 2 - 1; i >= 0; i--) {
+				siftDown(i, this.frontier[i], this.keys[i]);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.count > 0;
+		}
+
+		@Override
+		public int nextInt() {
+			if (this.count == 0) {
+				throw new NoSuchElementException();
+			}
+			int key = this.keys[0];
+			HeapNode first = this.frontier[0].firstChild();
+			if (first == null) {
+				// the last node of the frontier takes the place of the returned one
+				int last = --this.count;
+				HeapNode node = this.frontier[last];
+				this.frontier[last] = null;
+				if (last > 0) {
+					siftDown(0, node, this.keys[last]);
+				}
+				return key;
+			}
+			// the first child takes the place of its parent, and the other children are added
+			siftDown(0, first, first.key);
+			for (HeapNode child = first.right; !child.isSentinel(); child = child.right) {
+				if (this.count == this.frontier.length) {
+					this.frontier = Arrays.copyOf(this.frontier, 2 * this.count);
+					this.keys = Arrays.copyOf(this.keys, 2 * this.count);
+				}
+				siftUp(this.count++, child, child.key);
+			}
+			return key;
+		}
+
+		private void siftUp(int i, HeapNode node, int key) {
+			HeapNode[] frontier = this.frontier;
+			int[] keys = this.keys;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (keys[parent] <= key) {
+					break;
+				}
+				frontier[i] = frontier[parent];
+				keys[i] = keys[parent];
+				i = parent;
+			}
+			frontier[i] = node;
+			keys[i] = key;
+		}
+
+		private void siftDown(int i, HeapNode node, int key) {
+			HeapNode[] frontier = this.frontier;
+			int[] keys = this.keys;
+			int half = this.count >>> 1;
+			while (i < half) {
+				int child = 2 * i + 1;
+				if (child + 1 < this.count && keys[child + 1] < keys[child]) {
+					child++;
+				}
+				if (key <= keys[child]) {
+					break;
+				}
+				frontier[i] = frontier[child];
+				keys[i] = keys[child];
+				i = child;
+			}
+			frontier[i] = node;
+			keys[i] = key;
+		}
+	}
+
+	/**
+	 * class represents an iterator for a list of heap nodes
+	 * class instances assume that they were initialized with a sentinel node
+	 */
+	public static class HeapNodeIterator implements Iterator<HeapNode> {
+
+		HeapNode current;
+
+		public HeapNodeIterator(HeapNode node) {
+			this.current = node.right;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !current.isSentinel();
+		}
+
+		@Override
+		public HeapNode next() {
+			HeapNode node = this.current;
+			current = current.right;
+			return node;
+		}
+
+	}
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FibonacciHeapMetrics
+ * <p>
+ * Operation counters of a single FibonacciHeap: links, cuts, a histogram of cascading cut depths,
+ * consolidate passes, the highest rank seen and the length of the root list at the last consolidate.
+ * <p>
+ * the counters are plain fields written only by the heap that owns them, so like the heap they are not
+ * thread safe. a heap created without metrics skips all the counting.
+ * <p>
+ * metrics created with aggregate=true also add every count to JVM-wide totals kept in LongAdders,
+ * which many threads can update without contending on a single field. see the static global methods.
+ * aggregating is opt-in: the metrics of a heap created with new FibonacciHeap() don't aggregate, so its
+ * links and cuts touch no shared counter, and the global methods and the deprecated
+ * FibonacciHeap.totalLinks and totalCuts count only the heaps that opted in.
+ */
+public class FibonacciHeapMetrics {
+
+	/**
+	 * number of buckets of the cascading cut depth histogram. bucket i counts the decreaseKey and delete
+	 * operations that made i cuts, and the last bucket also counts all deeper ones
+	 */
+	public static final int DEPTH_BUCKETS = 32;
+
+	private static final LongAdder GLOBAL_LINKS = new LongAdder();
+	private static final LongAdder GLOBAL_CUTS = new LongAdder();
+	private static final LongAdder GLOBAL_CONSOLIDATES = new LongAdder();
+	private static final LongAccumulator GLOBAL_MAX_RANK = new LongAccumulator(Math::max, 0);
+	private static final LongAdder[] GLOBAL_CUT_DEPTHS = new LongAdder[DEPTH_BUCKETS];
+
+	static {
+		for (int i = 0; i < DEPTH_BUCKETS; i++) {
+			GLOBAL_CUT_DEPTHS[i] = new LongAdder();
+		}
+	}
+
+	private final boolean aggregate;
+	private long links;
+	private long cuts;
+	private long consolidates;
+	private int maxRank;
+	private int rootListLength;
+	private final long[] cutDepths;
+
+	/**
+	 * creates metrics that count only for their own heap, see FibonacciHeapMetrics(boolean)
+	 */
+	public FibonacciHeapMetrics() {
+		this(false);
+	}
+
+	/**
+	 * @param aggregate - whether counts are also added to the JVM-wide totals
+	 */
+	public FibonacciHeapMetrics(boolean aggregate) {
+		this.aggregate = aggregate;
+		this.cutDepths = new long[DEPTH_BUCKETS];
+	}
+
+	void link() {
+		this.links++;
+		if (this.aggregate) {
+			GLOBAL_LINKS.increment();
+		}
+	}
+
+	void cut() {
+		this.cuts++;
+		if (this.aggregate) {
+			GLOBAL_CUTS.increment();
+		}
+	}
+
+	/**
+	 * records a decreaseKey or delete that made the given number of cuts
+	 */
+	void cutDepth(int depth) {
+		int bucket = Math.min(depth, DEPTH_BUCKETS - 1);
+		this.cutDepths[bucket]++;
+		if (this.aggregate) {
+			GLOBAL_CUT_DEPTHS[bucket].increment();
+		}
+	}
+
+	/**
+	 * records a consolidate pass over a root list of the given length, which left trees of at most maxRank
+	 */
+	void consolidate(int rootListLength, int maxRank) {
+		this.consolidates++;
+		this.rootListLength = rootListLength;
+		if (maxRank > this.maxRank) {
+			this.maxRank = maxRank;
+		}
+		if (this.aggregate) {
+			GLOBAL_CONSOLIDATES.increment();
+			GLOBAL_MAX_RANK.accumulate(maxRank);
+		}
+	}
+
+	/**
+	 * returns the number of link operations made by the heap
+	 */
+	public long links() {
+		return this.links;
+	}
+
+	/**
+	 * returns the number of cut operations made by the heap
+	 */
+	public long cuts() {
+		return this.cuts;
+	}
+
+	/**
+	 * returns the number of consolidate passes made by the heap
+	 */
+	public long consolidates() {
+		return this.consolidates;
+	}
+
+	/**
+	 * returns the highest rank of a tree left by a consolidate pass
+	 */
+	public int maxRank() {
+		return this.maxRank;
+	}
+
+	/**
+	 * returns the length of the root list at the start of the last consolidate pass
+	 */
+	public int rootListLength() {
+		return this.rootListLength;
+	}
+
+	/**
+	 * returns a copy of the cascading cut depth histogram, see DEPTH_BUCKETS
+	 */
+	public long[] cutDepths() {
+		return this.cutDepths.clone();
+	}
+
+	/**
+	 * sets all the counters of this heap back to zero. the JVM-wide totals are not changed
+	 */
+	public void reset() {
+		this.links = 0;
+		this.cuts = 0;
+		this.consolidates = 0;
+		this.maxRank = 0;
+		this.rootListLength = 0;
+		for (int i = 0; i < DEPTH_BUCKETS; i++) {
+			this.cutDepths[i] = 0;
+		}
+	}
+
+	/**
+	 * returns the number of links made by all the heaps whose metrics aggregate
+	 */
+	public static long globalLinks() {
+		return GLOBAL_LINKS.sum();
+	}
+
+	/**
+	 * returns the number of cuts made by all the heaps whose metrics aggregate
+	 */
+	public static long globalCuts() {
+		return GLOBAL_CUTS.sum();
+	}
+
+	/**
+	 * returns the number of consolidate passes made by all the heaps whose metrics aggregate
+	 */
+	public static long globalConsolidates() {
+		return GLOBAL_CONSOLIDATES.sum();
+	}
+
+	/**
+	 * returns the highest rank seen by any of the heaps whose metrics aggregate
+	 */
+	public static long globalMaxRank() {
+		return GLOBAL_MAX_RANK.get();
+	}
+
+	/**
+	 * returns the cascading cut depth histogram of all the heaps whose metrics aggregate
+	 */
+	public static long[] globalCutDepths() {
+		long[] depths = new long[DEPTH_BUCKETS];
+		for (int i = 0; i < DEPTH_BUCKETS; i++) {
+			depths[i] = GLOBAL_CUT_DEPTHS[i].sum();
+		}
+		return depths;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("links: %d, cuts: %d, consolidates: %d, max rank: %d, root list length: %d", this.links,
+				this.cuts, this.consolidates, this.maxRank, this.rootListLength);
+	}
+}
@@ -0,0 +1,244 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * GraphSearch
+ * <p>
+ * Dijkstra's shortest paths and Prim's minimum spanning tree over a CsrGraph, driving an IndexedFibonacciHeap
+ * whose ids are the vertices, so neither finding the node of a vertex nor the vertex of the minimum needs a
+ * map or a boxed key.
+ * <p>
+ * keys are longs: the distance itself for int weights, and the bits of the distance for double weights.
+ * the bits of non-negative doubles sort like the doubles, so the same heap and the same loop serve both.
+ * <p>
+ * a search object is reused across queries. the results of a query can be read until the next one starts,
+ * and starting a query clears only the vertices the previous one reached, so a query that stops early
+ * costs as much as the part of the graph it explored.
+ * <p>
+ * not thread safe - every thread needs a search object of its own, which may share the graph.
+ */
+public class GraphSearch {
+
+	/**
+	 * vertex number that stands for "no vertex", the parent of a source or a root
+	 */
+	public static final int NONE = -1;
+
+	private final CsrGraph graph;
+	private final IndexedFibonacciHeap heap;
+	private final int[] parent;
+	private final long[] key; // the key each vertex was settled with
+	private final boolean[] settled;
+	private final int[] touched; // the vertices reached by the current query, to clear before the next one
+	private int touchedCount;
+	private int settledCount;
+
+	public GraphSearch(CsrGraph graph) {
+		int n = graph.vertices();
+		this.graph = graph;
+		this.heap = new IndexedFibonacciHeap(n);
+		this.parent = new int[n];
+		this.key = new long[n];
+		this.settled = new boolean[n];
+		this.touched = new int[n];
+		Arrays.fill(this.parent, NONE);
+	}
+
+	public CsrGraph graph() {
+		return this.graph;
+	}
+
+	/**
+	 * Finds the shortest paths from source to every vertex it reaches.
+	 *
+	 * @return the number of settled vertices
+	 */
+	public int shortestPaths(int source) {
+		return shortestPaths(new int[] { source }, NONE);
+	}
+
+	/**
+	 * Finds the shortest paths from the nearest of the sources, and stops as soon as the path to target is
+	 * known, or runs over all the reachable vertices if target is NONE.
+	 * after an early stop only the settled vertices have their distance, see isSettled.
+	 *
+	 * @return the number of settled vertices
+	 */
+	public int shortestPaths(int[] sources, int target) {
+		clear();
+		for (int source : sources) {
+			if (!this.heap.contains(source)) {
+				reach(source, 0, NONE);
+			}
+		}
+		run(false, target);
+		return this.settledCount;
+	}
+
+	/**
+	 * Grows a minimum spanning tree of the component of root with Prim's algorithm. the graph should hold
+	 * every edge in both directions. the distance of a vertex is then the weight of the edge to its parent.
+	 *
+	 * @return the number of vertices in the tree
+	 */
+	public int minimumSpanningTree(int root) {
+		clear();
+		reach(root, 0, NONE);
+		run(true, NONE);
+		return this.settledCount;
+	}
+
+	/**
+	 * Finds a minimum spanning tree of every component of the graph, rooted at its lowest vertex.
+	 *
+	 * @return the number of vertices, which are all settled
+	 */
+	public int minimumSpanningForest() {
+		clear();
+		int n = this.graph.vertices();
+		for (int v = 0; v < n; v++) {
+			if (!this.settled[v]) {
+				reach(v, 0, NONE);
+				run(true, NONE);
+			}
+		}
+		return this.settledCount;
+	}
+
+	/**
+	 * settles vertices in the order of their keys until the heap is empty or target is settled.
+	 * the key of an unsettled neighbor is its distance through the new vertex for shortest paths,
+	 * and the weight of the edge to the new vertex for a spanning tree
+	 */
+	private void run(boolean spanningTree, int target) {
+		int[] offsets = this.graph.offsets();
+		int[] targets = this.graph.targets();
+		int[] intWeights = this.graph.intWeights();
+		double[] doubleWeights = this.graph.doubleWeights();
+		IndexedFibonacciHeap heap = this.heap;
+
+		while (!heap.empty()) {
+			int u = heap.findMin();
+			long k = heap.keyOf(u);
+			heap.deleteMin();
+			this.settled[u] = true;
+			this.key[u] = k;
+			this.settledCount++;
+			if (u == target) {
+				heap.clear();
+				return;
+			}
+
+			double distance = doubleWeights != null ? Double.longBitsToDouble(k) : 0;
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				int v = targets[e];
+				if (this.settled[v]) {
+					continue;
+				}
+				long newKey;
+				if (intWeights != null) {
+					newKey = spanningTree ? intWeights[e] : k + intWeights[e];
+				} else {
+					newKey = Double.doubleToRawLongBits(spanningTree ? doubleWeights[e] : distance + doubleWeights[e]);
+				}
+				if (!heap.contains(v)) {
+					reach(v, newKey, u);
+				} else if (newKey < heap.keyOf(v)) {
+					heap.decreaseKeyTo(v, newKey);
+					this.parent[v] = u;
+				}
+			}
+		}
+	}
+
+	/**
+	 * inserts a vertex that wasn't reached before into the heap
+	 */
+	private void reach(int v, long key, int parent) {
+		this.heap.insert(v, key);
+		this.parent[v] = parent;
+		this.touched[this.touchedCount++] = v;
+	}
+
+	/**
+	 * clears the state of the vertices reached by the previous query
+	 */
+	private void clear() {
+		for (int i = 0; i < this.touchedCount; i++) {
+			int v = this.touched[i];
+			this.parent[v] = NONE;
+			this.settled[v] = false;
+		}
+		this.touchedCount = 0;
+		this.settledCount = 0;
+		this.heap.clear();
+	}
+
+	/**
+	 * returns true if the last query found the final distance of v
+	 */
+	public boolean isSettled(int v) {
+		return this.settled[v];
+	}
+
+	/**
+	 * returns the number of vertices settled by the last query
+	 */
+	public int settledCount() {
+		return this.settledCount;
+	}
+
+	/**
+	 * returns the distance of v found by the last query, or infinity if v wasn't settled.
+	 * after a spanning tree query, the weight of the edge from v to its parent
+	 */
+	public double distance(int v) {
+		if (!this.settled[v]) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return this.graph.hasDoubleWeights() ? Double.longBitsToDouble(this.key[v]) : this.key[v];
+	}
+
+	/**
+	 * returns the exact distance of v over a graph with int weights, or Long.MAX_VALUE if v wasn't settled
+	 *
+	 * @throws IllegalStateException if the graph has double weights
+	 */
+	public long intDistance(int v) {
+		if (this.graph.hasDoubleWeights()) {
+			throw new IllegalStateException("the graph has double weights");
+		}
+		return this.settled[v] ? this.key[v] : Long.MAX_VALUE;
+	}
+
+	/**
+	 * returns the vertex before v on its shortest path, or its parent in the spanning tree.
+	 * NONE for the sources and roots, and for vertices the last query didn't settle
+	 */
+	public int parent(int v) {
+		return this.settled[v] ? this.parent[v] : NONE;
+	}
+
+	/**
+	 * returns the sum of the distances of the settled vertices, which after a spanning tree query is the
+	 * weight of the tree (or forest)
+	 */
+	public double totalWeight() {
+		double total = 0;
+		long intTotal = 0;
+		boolean doubles = this.graph.hasDoubleWeights();
+		for (int i = 0; i < this.touchedCount; i++) {
+			int v = this.touched[i];
+			if (!this.settled[v]) {
+				continue;
+			}
+			if (doubles) {
+				total += Double.longBitsToDouble(this.key[v]);
+			} else {
+				intTotal += this.key[v];
+			}
+		}
+		return doubles ? total : intTotal;
+	}
+}
@@ -0,0 +1,31 @@
+package io.github.ofir500.fibonacciheap;
+
+/**
+ * Handoff
+ * <p>
+ * Reads and writes the op flag that hands a ConcurrentFibonacciHeap request over between its thread and the
+ * combiner. this is the Java 8 baseline, where op is a volatile field and every write to it is a full fence.
+ * <p>
+ * the multi-release jar replaces this class on Java 11 and later with the one in src/main/java11, which
+ * writes with release and reads with acquire semantics through a VarHandle. the handoff only needs the
+ * writes before the flag to be seen by whoever sees the flag, and the combiner lock orders the rest.
+ */
+final class Handoff {
+
+	private Handoff() {
+	}
+
+	/**
+	 * sets the op of the request, after everything written to the request before it
+	 */
+	static void publish(ConcurrentFibonacciHeap.Request request, int op) {
+		request.op = op;
+	}
+
+	/**
+	 * returns the op of the request, before anything read from the request after it
+	 */
+	static int op(ConcurrentFibonacciHeap.Request request) {
+		return request.op;
+	}
+}
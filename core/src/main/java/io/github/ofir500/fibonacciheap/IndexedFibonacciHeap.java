@@ -0,0 +1,112 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.NoSuchElementException;
+
+/**
+ * IndexedFibonacciHeap
+ * <p>
+ * An implementation of fibonacci heap over long keys whose elements are identified by dense int ids in
+ * [0, capacity) chosen by the caller, such as vertices of a graph or task numbers of a scheduler.
+ * the id is the handle of the element's node in the parallel arrays of ArrayFibonacciHeap, so finding the
+ * node of an id is an array index - no map from ids to nodes is needed, and nothing is boxed.
+ * <p>
+ * every id can be in the heap at most once, and can be inserted again after it was deleted.
+ * findMin returns the id of the minimum, and delete takes an id.
+ */
+public class IndexedFibonacciHeap extends ArrayFibonacciHeap {
+
+	private final int capacity;
+
+	/**
+	 * creates an empty heap for the ids 0 to capacity - 1
+	 */
+	public IndexedFibonacciHeap(int capacity) {
+		super(capacity);
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		reserve(capacity);
+	}
+
+	/**
+	 * returns the number of ids, which are 0 to capacity - 1
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * removes all the ids from the heap, in time linear in its size
+	 */
+	@Override
+	public void clear() {
+		removeAll();
+	}
+
+	/**
+	 * Inserts the id into the heap with the given key.
+	 *
+	 * @throws IndexOutOfBoundsException if the id isn't in [0, capacity)
+	 * @throws IllegalArgumentException if the id is already in the heap
+	 */
+	public void insert(int id, long key) {
+		checkId(id);
+		if (contains(id)) {
+			throw new IllegalArgumentException("id " + id + " is already in the heap");
+		}
+		insertKeyAt(id, key);
+	}
+
+	/**
+	 * returns the key of the given id.
+	 *
+	 * @throws IndexOutOfBoundsException if the id isn't in [0, capacity)
+	 * @throws NoSuchElementException if the id isn't in the heap
+	 */
+	public long keyOf(int id) {
+		checkContains(id);
+		return storedKey(id);
+	}
+
+	/**
+	 * The function sets the key of the given id to newKey, which must not be bigger than its current key.
+	 *
+	 * @throws IndexOutOfBoundsException if the id isn't in [0, capacity)
+	 * @throws NoSuchElementException if the id isn't in the heap
+	 * @throws IllegalArgumentException if newKey is bigger than the current key
+	 */
+	public void decreaseKeyTo(int id, long newKey) {
+		checkContains(id);
+		if (newKey > storedKey(id)) {
+			throw new IllegalArgumentException("new key " + newKey + " is bigger than the key " + storedKey(id)
+					+ " of id " + id);
+		}
+		decreaseStoredKey(id, newKey);
+	}
+
+	/**
+	 * Deletes the given id from the heap.
+	 *
+	 * @throws IndexOutOfBoundsException if the id isn't in [0, capacity)
+	 * @throws NoSuchElementException if the id isn't in the heap
+	 */
+	@Override
+	public void delete(int id) {
+		checkContains(id);
+		super.delete(id);
+	}
+
+	private void checkContains(int id) {
+		checkId(id);
+		if (!contains(id)) {
+			throw new NoSuchElementException("id " + id + " isn't in the heap");
+		}
+	}
+
+	private void checkId(int id) {
+		if (id < 0 || id >= this.capacity) {
+			throw new IndexOutOfBoundsException("id: " + id + ", capacity: " + this.capacity);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package io.github.ofir500.fibonacciheap;
+
+/**
+ * IntFibonacciHeap
+ * <p>
+ * An implementation of fibonacci heap over integers that keeps its nodes in parallel primitive arrays
+ * instead of HeapNode objects. a node is addressed by the int handle returned from insert.
+ * see ArrayFibonacciHeap for the structure.
+ */
+public class IntFibonacciHeap extends ArrayFibonacciHeap {
+
+	public IntFibonacciHeap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntFibonacciHeap(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	/**
+	 * Creates a node which contains the given key, inserts it into the heap and returns its handle.
+	 */
+	public int insert(int key) {
+		return insertKey(key);
+	}
+
+	/**
+	 * returns the key of the given node
+	 */
+	public int getKey(int node) {
+		return (int) storedKey(node);
+	}
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 * pre-condition: the node is in the heap
+	 */
+	public void decreaseKey(int x, int delta) {
+		decreaseStoredKey(x, getKey(x) - delta);
+	}
+
+	/**
+	 * Meld the heap with heap2.
+	 * the nodes of heap2 are copied into this heap and heap2 is left empty. a handle h of heap2
+	 * refers to node h + offset of this heap, where offset is the returned value
+	 */
+	public int meld(IntFibonacciHeap heap2) {
+		return meldHeap(heap2);
+	}
+}
@@ -0,0 +1,300 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * KeyedFibonacciHeap
+ * <p>
+ * An implementation of fibonacci heap over keys of any type, ordered by a Comparator or by their natural
+ * ordering, where each node also carries a value. callers get the value of the minimum from the node
+ * itself and don't need to keep a map from keys to their payloads.
+ * <p>
+ * like PriorityQueue, keys are compared by two separate paths: with no comparator compareTo is called
+ * directly, so keys with a natural ordering (Integer, Long...) don't pay for a Comparator call.
+ * primitive keys can avoid boxing altogether with IntFibonacciHeap, LongFibonacciHeap or DoubleFibonacciHeap,
+ * whose handles are dense slot numbers that can index an array of payloads.
+ * <p>
+ * the trees are those of ArrayFibonacciHeap, whose nodes are ordered by the keys of the entries in their
+ * slots. this has two costs compared to a heap of linked nodes:
+ * <ul>
+ * <li>meld isn't O(1): the nodes live in the arrays of their heap, so melding copies the nodes of the
+ * smaller of the two heaps, in time linear in its size. entries stay valid. a series of melds copies every
+ * node O(log n) times at most, but a workload of many melds of big heaps is better served by FibonacciHeap.</li>
+ * <li>every comparison reads both keys from the array of keys and calls compareTo or the comparator, which
+ * makes deleteMin over boxed keys slower than over the fields of linked nodes. primitive keys should use
+ * IntFibonacciHeap, LongFibonacciHeap or DoubleFibonacciHeap.</li>
+ * </ul>
+ */
+public class KeyedFibonacciHeap<K, V> {
+
+	private final Comparator<? super K> comparator;
+	private Entries entries; // swapped with those of heap2 by meld
+	private Nodes nodes;
+
+	/**
+	 * creates a heap ordered by the natural ordering of its keys
+	 */
+	public KeyedFibonacciHeap() {
+		this(null);
+	}
+
+	/**
+	 * creates a heap ordered by the given comparator, or by the natural ordering of its keys if it is null
+	 */
+	@SuppressWarnings("unchecked")
+	public KeyedFibonacciHeap(Comparator<? super K> comparator) {
+		this.comparator = comparator;
+		this.entries = new Entries((Comparator<Object>) comparator);
+		this.nodes = new Nodes(this.entries);
+	}
+
+	/**
+	 * returns the comparator ordering the heap, or null if it is ordered by the natural ordering of its keys
+	 */
+	public Comparator<? super K> comparator() {
+		return this.comparator;
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	public boolean empty() {
+		return this.nodes.empty();
+	}
+
+	/**
+	 * Return the number of elements in the heap
+	 */
+	public int size() {
+		return this.nodes.size();
+	}
+
+	/**
+	 * Creates a node which contains the given key and value, and inserts it into the heap.
+	 */
+	public Entry<K, V> insert(K key, V value) {
+		if (key == null) {
+			throw new NullPointerException("key");
+		}
+		Entry<K, V> entry = new Entry<>(key, value);
+		int node = this.nodes.allocate();
+		this.entries.set(node, entry);
+		this.nodes.insertKeyAt(node, 0);
+		return entry;
+	}
+
+	/**
+	 * Return the node of the heap whose key is minimal, or null if the heap is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public Entry<K, V> findMin() {
+		int min = this.nodes.findMin();
+		return min == ArrayFibonacciHeap.NONE ? null : (Entry<K, V>) this.entries.get(min);
+	}
+
+	/**
+	 * Delete the node containing the minimum key.
+	 */
+	public void deleteMin() {
+		this.nodes.deleteMin();
+	}
+
+	/**
+	 * Meld the heap with heap2. heap2 must be ordered the same way as this heap and is left empty.
+	 * the nodes of the smaller heap are copied into the other one, so meld takes time linear in the size of
+	 * the smaller heap, not O(1) like FibonacciHeap.meld. the entries of both heaps stay valid.
+	 */
+	public void meld(KeyedFibonacciHeap<K, V> heap2) {
+		if (heap2 == null || heap2 == this) {
+			return;
+		}
+		if (heap2.nodes.size() > this.nodes.size()) {
+			// take over the trees of heap2 and copy this heap's into them
+			Entries entries = this.entries;
+			Nodes nodes = this.nodes;
+			this.entries = heap2.entries;
+			this.nodes = heap2.nodes;
+			heap2.entries = entries;
+			heap2.nodes = nodes;
+		}
+		this.nodes.meldHeap(heap2.nodes);
+	}
+
+	/**
+	 * Deletes the node x from the heap.
+	 *
+	 * @throws IllegalArgumentException if x isn't in the heap
+	 */
+	public void delete(Entry<K, V> x) {
+		this.nodes.delete(node(x));
+	}
+
+	/**
+	 * The function replaces the key of the node x with a key that is not bigger than it.
+	 *
+	 * @throws IllegalArgumentException if x isn't in the heap, or newKey is bigger than its key
+	 */
+	public void decreaseKey(Entry<K, V> x, K newKey) {
+		if (newKey == null) {
+			throw new NullPointerException("newKey");
+		}
+		int node = node(x);
+		if (this.entries.less(x.key, newKey)) {
+			throw new IllegalArgumentException("new key is bigger than the current key");
+		}
+		x.key = newKey;
+		this.entries.setKey(node, newKey);
+		this.nodes.keyDecreased(node);
+	}
+
+	/**
+	 * This function returns the current potential of the heap, which is:
+	 * Potential = #trees + 2*#marked
+	 */
+	public int potential() {
+		return this.nodes.potential();
+	}
+
+	/**
+	 * returns the slot of the entry x, which must be in the heap
+	 */
+	private int node(Entry<K, V> x) {
+		int node = x.node;
+		if (node == ArrayFibonacciHeap.NONE || this.entries.get(node) != x) {
+			throw new IllegalArgumentException("the entry isn't in the heap");
+		}
+		return node;
+	}
+
+	/**
+	 * the trees of the heap
+	 */
+	private static final class Nodes extends ArrayFibonacciHeap {
+		Nodes(Entries entries) {
+			super(entries);
+		}
+	}
+
+	/**
+	 * the entry of every slot of a heap, and the ordering of their keys
+	 */
+	static final class Entries {
+		private final Comparator<Object> comparator; // null for the natural ordering
+		private Entry<?, ?>[] entries;
+		private Object[] keys; // key of the entry of every slot, read by the comparisons without loading the entry
+
+		Entries(Comparator<Object> comparator) {
+			this.comparator = comparator;
+			this.entries = new Entry<?, ?>[0];
+			this.keys = new Object[0];
+		}
+
+		Entry<?, ?> get(int node) {
+			return this.entries[node];
+		}
+
+		/**
+		 * puts the entry in the given slot
+		 */
+		void set(int node, Entry<?, ?> entry) {
+			this.entries[node] = entry;
+			this.keys[node] = entry.key;
+			entry.node = node;
+		}
+
+		/**
+		 * replaces the key of the entry in the given slot
+		 */
+		void setKey(int node, Object key) {
+			this.keys[node] = key;
+		}
+
+		/**
+		 * empties the slot of an entry that moves to another heap, and returns the entry
+		 */
+		Entry<?, ?> take(int node) {
+			Entry<?, ?> entry = this.entries[node];
+			this.entries[node] = null;
+			this.keys[node] = null;
+			return entry;
+		}
+
+		/**
+		 * empties the slots from to to - 1, whose entries are no longer in the heap
+		 */
+		void clear(int from, int to) {
+			for (int node = from; node < to; node++) {
+				Entry<?, ?> entry = this.entries[node];
+				if (entry != null) {
+					entry.node = ArrayFibonacciHeap.NONE;
+					this.entries[node] = null;
+					this.keys[node] = null;
+				}
+			}
+		}
+
+		void ensureCapacity(int capacity) {
+			if (capacity > this.entries.length) {
+				this.entries = Arrays.copyOf(this.entries, capacity);
+				this.keys = Arrays.copyOf(this.keys, capacity);
+			}
+		}
+
+		/**
+		 * returns true if and only if the key of the entry in slot a is smaller than the key of the one in slot b
+		 */
+		boolean less(int a, int b) {
+			return less(this.keys[a], this.keys[b]);
+		}
+
+		/**
+		 * returns true if and only if key a is smaller than key b
+		 */
+		@SuppressWarnings("unchecked")
+		boolean less(Object a, Object b) {
+			if (this.comparator == null) {
+				return ((Comparable<Object>) a).compareTo(b) < 0;
+			}
+			return this.comparator.compare(a, b) < 0;
+		}
+	}
+
+	/**
+	 * class represent a node in the heap, holding a key and a value
+	 */
+	public static final class Entry<K, V> {
+
+		private K key;
+		private V value;
+		private int node; // slot of the entry, or NONE once it left the heap
+
+		private Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+			this.node = ArrayFibonacciHeap.NONE;
+		}
+
+		public K getKey() {
+			return this.key;
+		}
+
+		public V getValue() {
+			return this.value;
+		}
+
+		/**
+		 * replaces the value of the node and returns the old one
+		 */
+		public V setValue(V value) {
+			V old = this.value;
+			this.value = value;
+			return old;
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + this.value;
+		}
+	}
+}
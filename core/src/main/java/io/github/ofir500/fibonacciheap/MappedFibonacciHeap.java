@@ -0,0 +1,238 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedFibonacciHeap
+ * <p>
+ * An implementation of fibonacci heap over long keys whose nodes live outside the Java heap, in a memory
+ * mapped file. it is an ArrayFibonacciHeap whose slot accessors read and write a fixed-size slot of the file
+ * instead of entries of the parallel arrays, so the Java heap holds only a few counters and the rank table,
+ * however many nodes the heap has, and the garbage collector never scans the nodes. the operating
+ * system pages the slots in and out of memory as they are used, so the heap may be bigger than the RAM.
+ * <p>
+ * the file is mapped in chunks of a fixed number of slots, and a new chunk is mapped when the heap grows past
+ * the ones it has, so no node is ever copied. a node is addressed by the int handle returned from insert,
+ * and slots of deleted nodes are reused like in ArrayFibonacciHeap.
+ * <p>
+ * the file is scratch space: it is deleted when the heap is closed, and its content is not meant to be read
+ * by anything else. a closed heap must not be used. as with any MappedByteBuffer, the memory of the mapping
+ * is given back once the buffers are garbage collected, not when the heap is closed.
+ * <p>
+ * not thread safe.
+ */
+public class MappedFibonacciHeap extends ArrayFibonacciHeap implements Closeable {
+
+	/**
+	 * the default number of slots per chunk, 2^20 slots of 32 bytes, 32MB
+	 */
+	public static final int DEFAULT_CHUNK_SLOTS = 1 << 20;
+
+	private static final int MAX_CHUNK_SLOTS = 1 << 25; // a chunk of 1GB, the biggest power of two a buffer holds
+	private static final int SLOT_SHIFT = 5; // 32 bytes per slot
+
+	private final Slots slots;
+
+	/**
+	 * creates a heap in the given file with chunks of DEFAULT_CHUNK_SLOTS slots.
+	 * the file is created, or truncated if it exists, and deleted when the heap is closed
+	 */
+	public MappedFibonacciHeap(Path file) throws IOException {
+		this(file, DEFAULT_CHUNK_SLOTS);
+	}
+
+	/**
+	 * creates a heap in the given file with chunks of chunkSlots slots, a power of two up to 2^25.
+	 * the file is created, or truncated if it exists, and deleted when the heap is closed
+	 */
+	public MappedFibonacciHeap(Path file, int chunkSlots) throws IOException {
+		this(new Slots(file, chunkSlots));
+	}
+
+	private MappedFibonacciHeap(Slots slots) {
+		super(slots);
+		this.slots = slots;
+	}
+
+	/**
+	 * creates a heap in a new temporary file
+	 */
+	public static MappedFibonacciHeap createTemp() throws IOException {
+		return new MappedFibonacciHeap(Files.createTempFile("fibheap", ".slots"));
+	}
+
+	/**
+	 * closes and deletes the file. the heap can't be used afterwards
+	 */
+	@Override
+	public void close() throws IOException {
+		this.slots.chunks = null;
+		this.slots.channel.close();
+	}
+
+	/**
+	 * returns the number of bytes of the file that are mapped
+	 */
+	public long mappedBytes() {
+		return (long) this.slots.capacity << SLOT_SHIFT;
+	}
+
+	/**
+	 * Creates a node which contains the given key, inserts it into the heap and returns its handle.
+	 */
+	public int insert(long key) {
+		return insertKey(key);
+	}
+
+	/**
+	 * returns the key of the given node
+	 */
+	public long getKey(int node) {
+		return storedKey(node);
+	}
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 * pre-condition: the node is in the heap
+	 */
+	public void decreaseKey(int x, long delta) {
+		decreaseStoredKey(x, storedKey(x) - delta);
+	}
+
+	/**
+	 * the chunks of the file that hold the nodes, each slot holding the fields of one node
+	 */
+	static final class Slots {
+		// layout of a slot
+		private static final int KEY = 0;
+		private static final int PARENT = 8;
+		private static final int LEFT = 12;
+		private static final int RIGHT = 16;
+		private static final int CHILD = 20;
+		private static final int RANK = 24;
+		private static final int MARKED = 28;
+
+		private final FileChannel channel;
+		private final int chunkShift;
+		private final int chunkMask;
+		private MappedByteBuffer[] chunks;
+		private int capacity;
+
+		Slots(Path file, int chunkSlots) throws IOException {
+			if (chunkSlots <= 0 || chunkSlots > MAX_CHUNK_SLOTS || Integer.bitCount(chunkSlots) != 1) {
+				throw new IllegalArgumentException("chunkSlots must be a power of two up to 2^25: " + chunkSlots);
+			}
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			this.chunkShift = Integer.numberOfTrailingZeros(chunkSlots);
+			this.chunkMask = chunkSlots - 1;
+			this.chunks = new MappedByteBuffer[0];
+			this.capacity = 0;
+		}
+
+		/**
+		 * maps chunks of the file until the slots 0 to capacity - 1 exist
+		 */
+		void ensureCapacity(int capacity) {
+			while (this.capacity < capacity) {
+				mapChunk();
+			}
+		}
+
+		/**
+		 * maps the next chunk of the file, which grows the file
+		 */
+		private void mapChunk() {
+			int chunkSlots = this.chunkMask + 1;
+			if (this.capacity > Integer.MAX_VALUE - chunkSlots) {
+				throw new IllegalStateException("heap is full: " + this.capacity + " nodes");
+			}
+			long chunkBytes = (long) chunkSlots << SLOT_SHIFT;
+			MappedByteBuffer chunk;
+			try {
+				chunk = this.channel.map(FileChannel.MapMode.READ_WRITE, this.chunks.length * chunkBytes, chunkBytes);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			chunk.order(ByteOrder.nativeOrder());
+			this.chunks = Arrays.copyOf(this.chunks, this.chunks.length + 1);
+			this.chunks[this.chunks.length - 1] = chunk;
+			this.capacity += chunkSlots;
+		}
+
+		// accessors of the fields of a slot
+
+		private MappedByteBuffer chunk(int node) {
+			return this.chunks[node >>> this.chunkShift];
+		}
+
+		private int offset(int node, int field) {
+			return ((node & this.chunkMask) << SLOT_SHIFT) + field;
+		}
+
+		long key(int node) {
+			return chunk(node).getLong(offset(node, KEY));
+		}
+
+		void setKey(int node, long key) {
+			chunk(node).putLong(offset(node, KEY), key);
+		}
+
+		int parent(int node) {
+			return chunk(node).getInt(offset(node, PARENT));
+		}
+
+		void setParent(int node, int parent) {
+			chunk(node).putInt(offset(node, PARENT), parent);
+		}
+
+		int left(int node) {
+			return chunk(node).getInt(offset(node, LEFT));
+		}
+
+		void setLeft(int node, int left) {
+			chunk(node).putInt(offset(node, LEFT), left);
+		}
+
+		int right(int node) {
+			return chunk(node).getInt(offset(node, RIGHT));
+		}
+
+		void setRight(int node, int right) {
+			chunk(node).putInt(offset(node, RIGHT), right);
+		}
+
+		int child(int node) {
+			return chunk(node).getInt(offset(node, CHILD));
+		}
+
+		void setChild(int node, int child) {
+			chunk(node).putInt(offset(node, CHILD), child);
+		}
+
+		int rank(int node) {
+			return chunk(node).getInt(offset(node, RANK));
+		}
+
+		void setRank(int node, int rank) {
+			chunk(node).putInt(offset(node, RANK), rank);
+		}
+
+		boolean isMarked(int node) {
+			return chunk(node).getInt(offset(node, MARKED)) != 0;
+		}
+
+		void setMarked(int node, boolean marked) {
+			chunk(node).putInt(offset(node, MARKED), marked ? 1 : 0);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package io.github.ofir500.fibonacciheap;
+
+/**
+ * MeldableHeap
+ * <p>
+ * The operations shared by the heaps over int keys whose nodes are objects: FibonacciHeap, PairingHeap and
+ * RankPairingHeap. code written against this interface can switch between them by changing only the line
+ * that creates the heap.
+ * <p>
+ * N is the node type the heap hands out from insert and takes back in decreaseKey and delete,
+ * and H is the heap type itself, which meld takes.
+ */
+public interface MeldableHeap<N extends MeldableHeap.Node, H extends MeldableHeap<N, H>> {
+
+	/**
+	 * a node of a heap, holding a key
+	 */
+	interface Node {
+		int getKey();
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	boolean empty();
+
+	/**
+	 * Return the number of elements in the heap
+	 */
+	int size();
+
+	/**
+	 * Creates a node which contains the given key, inserts it into the heap and returns it.
+	 */
+	N insert(int key);
+
+	/**
+	 * Return the node of the heap whose key is minimal, or null if the heap is empty.
+	 */
+	N findMin();
+
+	/**
+	 * Delete the node containing the minimum key.
+	 */
+	void deleteMin();
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 * pre-condition: the node is in the heap
+	 */
+	void decreaseKey(N x, int delta);
+
+	/**
+	 * Deletes the node x from the heap.
+	 */
+	void delete(N x);
+
+	/**
+	 * Meld the heap with heap2, which is left empty.
+	 */
+	void meld(H heap2);
+}
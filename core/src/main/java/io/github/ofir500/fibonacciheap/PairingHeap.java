@@ -0,0 +1,197 @@
+package io.github.ofir500.fibonacciheap;
+
+/**
+ * PairingHeap
+ * <p>
+ * An implementation of pairing heap over integers: a single tree where every node keeps a pointer to its
+ * first child and its siblings are chained after it. insert, meld and decreaseKey link two trees in
+ * constant time, and deleteMin links the children of the root in two passes - pairs from left to right,
+ * and then the pairs from right to left into one tree.
+ * <p>
+ * there are no ranks, marks or root lists to keep, so the constant factors are smaller than those of
+ * FibonacciHeap. decreaseKey is O(log n) amortized rather than O(1), which in practice rarely shows.
+ * <p>
+ * the prev field of a node is its left sibling, or its parent if it is the first child.
+ */
+public class PairingHeap implements MeldableHeap<PairingHeap.Node, PairingHeap> {
+
+	private Node root;
+	private int size;
+
+	public PairingHeap() {
+		this.root = null;
+		this.size = 0;
+	}
+
+	@Override
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Node insert(int key) {
+		Node node = new Node(key);
+		this.root = this.root == null ? node : link(this.root, node);
+		this.size++;
+		return node;
+	}
+
+	@Override
+	public Node findMin() {
+		return this.root;
+	}
+
+	@Override
+	public void deleteMin() {
+		Node min = this.root;
+		if (min == null) {
+			// heap is empty, no action needed
+			return;
+		}
+		this.root = mergePairs(min.child);
+		min.child = null;
+		this.size--;
+	}
+
+	@Override
+	public void decreaseKey(Node x, int delta) {
+		x.key = x.key - delta;
+		if (x != this.root) {
+			// cut the subtree of x and link it with the root
+			detach(x);
+			this.root = link(this.root, x);
+		}
+	}
+
+	@Override
+	public void delete(Node x) {
+		if (x == this.root) {
+			deleteMin();
+			return;
+		}
+		detach(x);
+		Node children = mergePairs(x.child);
+		x.child = null;
+		if (children != null) {
+			this.root = link(this.root, children);
+		}
+		this.size--;
+	}
+
+	/**
+	 * Meld the heap with heap2, which is left empty.
+	 */
+	@Override
+	public void meld(PairingHeap heap2) {
+		if (heap2 == null || heap2 == this || heap2.root == null) {
+			return;
+		}
+		this.root = this.root == null ? heap2.root : link(this.root, heap2.root);
+		this.size += heap2.size;
+		heap2.root = null;
+		heap2.size = 0;
+	}
+
+	/**
+	 * links two trees by making the root with the bigger key the first child of the other.
+	 * both roots must have no siblings
+	 *
+	 * @return the root of the linked tree
+	 */
+	private static Node link(Node a, Node b) {
+		if (b.key < a.key) {
+			Node tmp = a;
+			a = b;
+			b = tmp;
+		}
+		Node first = a.child;
+		b.next = first;
+		if (first != null) {
+			first.prev = b;
+		}
+		b.prev = a;
+		a.child = b;
+		return a;
+	}
+
+	/**
+	 * removes a node that isn't the root, with its subtree, from its list of siblings
+	 */
+	private static void detach(Node x) {
+		if (x.prev.child == x) {
+			x.prev.child = x.next;
+		} else {
+			x.prev.next = x.next;
+		}
+		if (x.next != null) {
+			x.next.prev = x.prev;
+		}
+		x.next = null;
+		x.prev = null;
+	}
+
+	/**
+	 * links a list of siblings into a single tree in two passes, and returns its root.
+	 * the first pass links pairs from left to right and stacks the results through their next field,
+	 * so the second pass, which links them into one tree, runs from right to left without recursion
+	 */
+	private static Node mergePairs(Node first) {
+		if (first == null) {
+			return null;
+		}
+		Node stacked = null;
+		Node a = first;
+		while (a != null) {
+			Node b = a.next;
+			if (b == null) {
+				a.next = stacked;
+				stacked = a;
+				break;
+			}
+			Node rest = b.next;
+			a.next = null;
+			b.next = null;
+			Node pair = link(a, b);
+			pair.next = stacked;
+			stacked = pair;
+			a = rest;
+		}
+
+		Node result = stacked;
+		Node next = result.next;
+		result.next = null;
+		while (next != null) {
+			Node tree = next;
+			next = tree.next;
+			tree.next = null;
+			result = link(result, tree);
+		}
+		result.prev = null;
+		return result;
+	}
+
+	/**
+	 * class represent a node in the heap
+	 */
+	public static final class Node implements MeldableHeap.Node {
+
+		private int key;
+		private Node child;
+		private Node next;
+		private Node prev;
+
+		private Node(int key) {
+			this.key = key;
+		}
+
+		@Override
+		public int getKey() {
+			return this.key;
+		}
+	}
+}
@@ -0,0 +1,292 @@
+package io.github.ofir500.fibonacciheap;
+
+/**
+ * RankPairingHeap
+ * <p>
+ * An implementation of rank-pairing heap (type 1, with one-pass linking) over integers. it has the amortized
+ * bounds of FibonacciHeap - O(1) insert, meld and decreaseKey, O(log n) deleteMin - with no cascading cuts:
+ * decreaseKey cuts a single subtree and only lowers ranks on the way up.
+ * <p>
+ * the heap is a list of half trees. a half tree is a binary tree whose root has only a left child, and where
+ * the key of every node is at most the keys in its left subtree (its right subtree is unrelated). linking two
+ * half trees of equal rank makes the root with the bigger key the left child of the other, and its old left
+ * subtree the right subtree of the loser.
+ * <p>
+ * roots don't have a right child, so the right field of the roots links them in a circular list, entered
+ * at the minimum. the rank of a missing child is -1.
+ */
+public class RankPairingHeap implements MeldableHeap<RankPairingHeap.Node, RankPairingHeap> {
+
+	private static final int INITIAL_RANK_TABLE_SIZE = 16;
+
+	private Node min;
+	private int size;
+	private Node[] treesByRank; // used by deleteMin, kept between calls
+	private Node rebuiltMin; // the root list deleteMin is building
+
+	public RankPairingHeap() {
+		this.min = null;
+		this.size = 0;
+		this.treesByRank = new Node[INITIAL_RANK_TABLE_SIZE];
+	}
+
+	@Override
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Node insert(int key) {
+		Node node = new Node(key);
+		addRoot(node);
+		this.size++;
+		return node;
+	}
+
+	@Override
+	public Node findMin() {
+		return this.min;
+	}
+
+	/**
+	 * Delete the node containing the minimum key.
+	 * the right spine of the left subtree of the minimum falls apart into half trees, and together with the
+	 * other roots they are linked in one pass: two half trees of the same rank are linked as soon as they
+	 * meet, and the result goes straight to the new root list rather than back into the table.
+	 */
+	@Override
+	public void deleteMin() {
+		Node x = this.min;
+		if (x == null) {
+			// heap is empty, no action needed
+			return;
+		}
+		this.size--;
+		this.rebuiltMin = null;
+
+		Node root = x.right;
+		while (root != x) {
+			Node next = root.right;
+			root.right = null;
+			linkByRank(root);
+			root = next;
+		}
+		Node spine = x.left;
+		while (spine != null) {
+			Node next = spine.right;
+			spine.right = null;
+			spine.parent = null;
+			spine.rank = spine.left == null ? 0 : spine.left.rank + 1;
+			linkByRank(spine);
+			spine = next;
+		}
+		x.left = null;
+		x.right = null;
+
+		Node[] trees = this.treesByRank;
+		for (int i = 0; i < trees.length; i++) {
+			if (trees[i] != null) {
+				appendRoot(trees[i]);
+				trees[i] = null;
+			}
+		}
+		this.min = this.rebuiltMin;
+		this.rebuiltMin = null;
+	}
+
+	/**
+	 * links a half tree with the waiting half tree of the same rank if there is one, and adds the result
+	 * to the new root list. otherwise the half tree waits in the table
+	 */
+	private void linkByRank(Node tree) {
+		int rank = tree.rank;
+		if (rank >= this.treesByRank.length) {
+			Node[] grown = new Node[Math.max(rank + 1, this.treesByRank.length * 2)];
+			System.arraycopy(this.treesByRank, 0, grown, 0, this.treesByRank.length);
+			this.treesByRank = grown;
+		}
+		Node other = this.treesByRank[rank];
+		if (other == null) {
+			this.treesByRank[rank] = tree;
+		} else {
+			this.treesByRank[rank] = null;
+			appendRoot(link(other, tree));
+		}
+	}
+
+	/**
+	 * adds a half tree to the root list deleteMin is building
+	 */
+	private void appendRoot(Node tree) {
+		Node first = this.rebuiltMin;
+		if (first == null) {
+			tree.right = tree;
+			this.rebuiltMin = tree;
+			return;
+		}
+		tree.right = first.right;
+		first.right = tree;
+		if (tree.key < first.key) {
+			this.rebuiltMin = tree;
+		}
+	}
+
+	/**
+	 * links two half trees of the same rank
+	 *
+	 * @return the root of the linked half tree
+	 */
+	private static Node link(Node a, Node b) {
+		if (b.key < a.key) {
+			Node tmp = a;
+			a = b;
+			b = tmp;
+		}
+		b.right = a.left;
+		if (b.right != null) {
+			b.right.parent = b;
+		}
+		b.parent = a;
+		a.left = b;
+		a.rank++;
+		return a;
+	}
+
+	/**
+	 * The function decreases the key of the node x by delta.
+	 * pre-condition: the node is in the heap
+	 */
+	@Override
+	public void decreaseKey(Node x, int delta) {
+		x.key = x.key - delta;
+		if (x.parent == null) {
+			// x is a root, only the minimum may change
+			if (x.key < this.min.key) {
+				this.min = x;
+			}
+			return;
+		}
+		cut(x);
+	}
+
+	/**
+	 * Deletes the node x from the heap.
+	 */
+	@Override
+	public void delete(Node x) {
+		if (x.parent != null) {
+			cut(x);
+		}
+		// deleteMin removes the node min points to, and finds the real minimum among all the roots
+		this.min = x;
+		deleteMin();
+	}
+
+	/**
+	 * makes x, with its left subtree, a half tree of its own. its right subtree takes its place,
+	 * and the ranks of its ancestors are lowered as far as the type 1 rule allows
+	 */
+	private void cut(Node x) {
+		Node parent = x.parent;
+		Node right = x.right;
+		if (parent.left == x) {
+			parent.left = right;
+		} else {
+			parent.right = right;
+		}
+		if (right != null) {
+			right.parent = parent;
+		}
+		x.parent = null;
+		x.right = null;
+		x.rank = x.left == null ? 0 : x.left.rank + 1;
+		addRoot(x);
+
+		Node u = parent;
+		while (true) {
+			int newRank;
+			if (u.parent == null) {
+				newRank = u.left == null ? 0 : u.left.rank + 1;
+			} else {
+				int leftRank = u.left == null ? -1 : u.left.rank;
+				int rightRank = u.right == null ? -1 : u.right.rank;
+				newRank = leftRank == rightRank ? leftRank + 1 : Math.max(leftRank, rightRank);
+			}
+			if (newRank >= u.rank) {
+				break;
+			}
+			u.rank = newRank;
+			if (u.parent == null) {
+				break;
+			}
+			u = u.parent;
+		}
+	}
+
+	/**
+	 * adds a half tree to the root list, after the minimum
+	 */
+	private void addRoot(Node node) {
+		Node first = this.min;
+		if (first == null) {
+			node.right = node;
+			this.min = node;
+			return;
+		}
+		node.right = first.right;
+		first.right = node;
+		if (node.key < first.key) {
+			this.min = node;
+		}
+	}
+
+	/**
+	 * Meld the heap with heap2, which is left empty.
+	 */
+	@Override
+	public void meld(RankPairingHeap heap2) {
+		if (heap2 == null || heap2 == this || heap2.min == null) {
+			return;
+		}
+		if (this.min == null) {
+			this.min = heap2.min;
+		} else {
+			// splice the two circular lists after their minimums
+			Node next = this.min.right;
+			this.min.right = heap2.min.right;
+			heap2.min.right = next;
+			if (heap2.min.key < this.min.key) {
+				this.min = heap2.min;
+			}
+		}
+		this.size += heap2.size;
+		heap2.min = null;
+		heap2.size = 0;
+	}
+
+	/**
+	 * class represent a node in the heap
+	 */
+	public static final class Node implements MeldableHeap.Node {
+
+		private int key;
+		private int rank;
+		private Node parent;
+		private Node left;
+		private Node right;
+
+		private Node(int key) {
+			this.key = key;
+		}
+
+		@Override
+		public int getKey() {
+			return this.key;
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package io.github.ofir500.fibonacciheap;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ShardedFibonacciHeap
+ * <p>
+ * A thread safe priority queue over several FibonacciHeaps (shards), each behind a lock of its own.
+ * a thread inserts into its home shard, chosen by its thread id, or into the next shard whose lock is free,
+ * so threads that insert at the same time rarely wait for each other.
+ * <p>
+ * every shard publishes the key of its minimum in a volatile field, so the global minimum is found by a
+ * tournament over those keys without taking any lock. deleteMin locks only the winning shard, and retries if
+ * the shard's minimum changed before it got the lock. with no concurrent inserts it returns the global
+ * minimum; an insert of a smaller key that races with it may be missed, as with any queue that doesn't lock
+ * all its shards.
+ * <p>
+ * deleteMinRelaxed is the MultiQueue variant: it compares the minima of two random shards and deletes the
+ * smaller one. the deleted key is close to the global minimum rather than equal to it, but threads hardly
+ * ever contend, which lets the queue scale with the number of threads.
+ */
+public class ShardedFibonacciHeap {
+
+	private static final long EMPTY = Long.MAX_VALUE; // published minimum of an empty shard
+
+	private final Shard[] shards;
+
+	/**
+	 * a heap and the lock that guards it. minKey and size are published for readers that don't hold the lock
+	 */
+	private static final class Shard {
+		final FibonacciHeap heap = new FibonacciHeap(null);
+		final ReentrantLock lock = new ReentrantLock();
+		volatile long minKey = EMPTY;
+		volatile int size;
+
+		/**
+		 * publishes the state of the heap, called with the lock held after every change
+		 */
+		void publish() {
+			FibonacciHeap.HeapNode min = this.heap.findMin();
+			this.minKey = min == null ? EMPTY : min.getKey();
+			this.size = this.heap.size();
+		}
+	}
+
+	public ShardedFibonacciHeap(int shards) {
+		if (shards < 1) {
+			throw new IllegalArgumentException("shards: " + shards);
+		}
+		this.shards = new Shard[shards];
+		for (int i = 0; i < shards; i++) {
+			this.shards[i] = new Shard();
+		}
+	}
+
+	/**
+	 * creates a heap with two shards per available processor
+	 */
+	public ShardedFibonacciHeap() {
+		this(2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Return the number of elements in the heap. the count is exact only when no other thread changes the heap
+	 */
+	public int size() {
+		int size = 0;
+		for (Shard shard : this.shards) {
+			size += shard.size;
+		}
+		return size;
+	}
+
+	/**
+	 * The method returns true if and only if the heap is empty.
+	 */
+	public boolean empty() {
+		for (Shard shard : this.shards) {
+			if (shard.minKey != EMPTY) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Inserts the given key into the home shard of the current thread, or into the first shard after it whose
+	 * lock is free. if all the locks are taken the thread waits for the lock of its home shard.
+	 */
+	public void insert(int key) {
+		int home = (int) (Thread.currentThread().getId() % this.shards.length);
+		for (int i = 0; i < this.shards.length; i++) {
+			Shard shard = this.shards[(home + i) % this.shards.length];
+			if (shard.lock.tryLock()) {
+				try {
+					insert(shard, key);
+				} finally {
+					shard.lock.unlock();
+				}
+				return;
+			}
+		}
+		Shard shard = this.shards[home];
+		shard.lock.lock();
+		try {
+			insert(shard, key);
+		} finally {
+			shard.lock.unlock();
+		}
+	}
+
+	private static void insert(Shard shard, int key) {
+		shard.heap.insert(key);
+		if (key < shard.minKey) {
+			shard.minKey = key;
+		}
+		shard.size = shard.heap.size();
+	}
+
+	/**
+	 * Return the minimal key of the heap
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int findMin() {
+		Shard shard = this.shards[minShard()];
+		long key = shard.minKey;
+		if (key == EMPTY) {
+			throw new NoSuchElementException("heap is empty");
+		}
+		return (int) key;
+	}
+
+	/**
+	 * returns the index of the shard with the smallest published minimum
+	 */
+	private int minShard() {
+		int best = 0;
+		long bestKey = this.shards[0].minKey;
+		for (int i = 1; i < this.shards.length; i++) {
+			long key = this.shards[i].minKey;
+			if (key < bestKey) {
+				best = i;
+				bestKey = key;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Deletes the node containing the minimum key and returns its key.
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int deleteMin() {
+		while (true) {
+			Shard shard = this.shards[minShard()];
+			long expected = shard.minKey;
+			if (expected == EMPTY) {
+				throw new NoSuchElementException("heap is empty");
+			}
+			shard.lock.lock();
+			try {
+				// the shard may have lost its minimum to another thread while this one waited for the lock
+				if (shard.minKey == expected) {
+					return deleteMin(shard);
+				}
+			} finally {
+				shard.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Deletes a node whose key is close to the minimum and returns its key: the smaller of the minima of
+	 * two random shards, skipping shards whose lock is taken.
+	 *
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int deleteMinRelaxed() {
+		ThreadLocalRandom rnd = ThreadLocalRandom.current();
+		while (true) {
+			Shard a = this.shards[rnd.nextInt(this.shards.length)];
+			Shard b = this.shards[rnd.nextInt(this.shards.length)];
+			Shard shard = b.minKey < a.minKey ? b : a;
+			if (shard.minKey == EMPTY) {
+				if (empty()) {
+					throw new NoSuchElementException("heap is empty");
+				}
+				continue;
+			}
+			if (shard.lock.tryLock()) {
+				try {
+					if (shard.minKey != EMPTY) {
+						return deleteMin(shard);
+					}
+				} finally {
+					shard.lock.unlock();
+				}
+			}
+		}
+	}
+
+	private static int deleteMin(Shard shard) {
+		int key = shard.heap.findMin().getKey();
+		shard.heap.deleteMin();
+		shard.publish();
+		return key;
+	}
+}
@@ -1,3 +1,5 @@
+package io.github.ofir500.fibonacciheap;
+
 import java.util.*;
 
 /**
@@ -60,7 +62,7 @@ public class FibHeapTester {
 		}
 		long totalTime = System.currentTimeMillis() - startTime;
 		System.out.println(totalTime);
-		System.out.printf("m: %d, Total time: %s, Total links: %d, total cuts: %d, Potential: %d", m, String.valueOf(totalTime), h.totalLinks(), h.totalCuts(), h.potential());
+		System.out.printf("m: %d, Total time: %s, Total links: %d, total cuts: %d, Potential: %d", m, String.valueOf(totalTime), h.metrics().links(), h.metrics().cuts(), h.potential());
 		h.print();
 	}
 
@@ -76,7 +78,7 @@ public class FibHeapTester {
 
 		long totalTime = System.currentTimeMillis() - startTime;
 		System.out.println(totalTime);
-		System.out.printf("m: %d, Total time: %s, Total links: %d, total cuts: %d, Potential: %d", m, String.valueOf(totalTime), h.totalLinks(), h.totalCuts(), h.potential());
+		System.out.printf("m: %d, Total time: %s, Total links: %d, total cuts: %d, Potential: %d", m, String.valueOf(totalTime), h.metrics().links(), h.metrics().cuts(), h.potential());
 		System.out.println("\n" + h.size());
 		//h.print();
 	}
@@ -96,7 +98,7 @@ public class FibHeapTester {
 		h.print();
 		long totalTime = System.currentTimeMillis() - startTime;
 		System.out.println(totalTime);
-		System.out.printf("m: %d, Total time: %s, Total links: %d, total cuts: %d, Potential: %d", m, String.valueOf(totalTime), h.totalLinks(), h.totalCuts(), h.potential());
+		System.out.printf("m: %d, Total time: %s, Total links: %d, total cuts: %d, Potential: %d", m, String.valueOf(totalTime), h.metrics().links(), h.metrics().cuts(), h.potential());
 		System.out.println("\n" + h.size());
 		//h.print();
 	}
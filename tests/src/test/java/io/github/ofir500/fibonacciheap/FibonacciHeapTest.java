@@ -0,0 +1,2765 @@
+package io.github.ofir500.fibonacciheap;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+public class FibonacciHeapTest {
+	private static int[] createValues(int n) {
+		n = 10_000;
+		int[] values = new int[n];
+		int maxValue = n * 10;
+		Random randomGenerator = new Random();
+
+		for (int i = 0; i < n; ++i) {
+			while (true) {
+				int j, randInt = randomGenerator.nextInt(maxValue);
+
+				for (j = 0; j < i && randInt != values[j]; ++j)
+					;
+				if (j < i) {
+					continue;
+				}
+				values[i] = randInt;
+				break;
+			}
+		}
+
+		return values;
+	}
+
+	private static String vals2str(int[] values) {
+		int min = values[0];
+		for (int val : values) {
+			min = val < min ? val : min;
+		}
+		String s = "size=" + values.length + " min=" + min;
+
+		if (values.length <= 20) {
+			for (int val : values) {
+				s += " " + val;
+			}
+		} else {
+			for (int j = 0; j < 5; ++j) {
+				s += " " + values[j];
+			}
+			s += " ...";
+			for (int j = 0; j < 5; ++j) {
+				s += " " + values[values.length - 6 + j];
+			}
+		}
+
+		return s;
+	}
+
+	private static abstract class Test implements Runnable {
+		public final String name;
+		private boolean failed;
+		private String error;
+		private String eMessage;
+		private String eTrace;
+
+		public Test(String name) {
+			this.name = name;
+			this.failed = false;
+			this.error = "";
+			this.eMessage = "";
+			this.eTrace = "";
+			// System.out.println("Adding test: " + name);
+		}
+
+		@Override
+		public void run() {
+			try {
+				test();
+			} catch (Exception e) {
+				setFailed(e);
+			}
+		}
+
+		protected abstract void test();
+
+		public void setFailed(String error) {
+			failed = true;
+			this.error = error;
+			// System.out.println("Failed. error: " + error);
+		}
+
+		public void setFailed(Exception e) {
+			setFailed("Java Exception");
+			this.eMessage = e.getMessage();
+			this.eTrace = "\n";
+			for (StackTraceElement el : e.getStackTrace()) {
+				if (!el.getClassName().contains("FibonacciHeap")) {
+					continue;
+				}
+				this.eTrace += "\t" + el + "\n";
+			}
+			// System.out.println("Exception message: " + eMessage);
+			// System.out.println("Stack trace:\n" + eTrace);
+		}
+
+		public boolean failed() {
+			return failed;
+		}
+
+		/**
+		 * checks that the potential equals the number of trees plus twice the number of marked nodes,
+		 * and that every child is at least as big as its parent
+		 */
+		protected boolean checkPotential(FibonacciHeap heap) {
+			int potential = 0;
+			List<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+			for (FibonacciHeap.HeapNode root : heap) {
+				potential++;
+				nodes.add(root);
+			}
+			while (!nodes.isEmpty()) {
+				FibonacciHeap.HeapNode node = nodes.remove(nodes.size() - 1);
+				for (FibonacciHeap.HeapNode child : node) {
+					if (child.getKey() < node.getKey()) {
+						setFailed("child " + child.getKey() + " is smaller than its parent " + node.getKey());
+						return false;
+					}
+					if (child.isMarked) {
+						potential += 2;
+					}
+					nodes.add(child);
+				}
+			}
+			if (potential != heap.potential()) {
+				setFailed("potential " + heap.potential() + " instead of " + potential);
+				return false;
+			}
+			return true;
+		}
+
+		public String toString() {
+			return String.format("%s, Faild: %s, Error: %s, " + "Exception: %s, Call stack: %s", name,
+					failed ? "Y" : "N", error, eMessage, eTrace);
+		}
+	}
+
+	static private class TestMeld1 extends Test {
+		public TestMeld1() {
+			super("Meld two empty heaps");
+		}
+
+		protected void test() {
+			FibonacciHeap heap1 = new FibonacciHeap();
+			FibonacciHeap heap2 = new FibonacciHeap();
+			heap1.meld(heap2);
+			if (!heap1.empty()) {
+				setFailed("result not empty!");
+			}
+		}
+	}
+
+	static private class TestMeld2 extends Test {
+		public TestMeld2() {
+			super("Meld other empty heap");
+		}
+
+		protected void test() {
+			FibonacciHeap heap1 = new FibonacciHeap();
+			FibonacciHeap heap2 = new FibonacciHeap();
+			FibonacciHeap.HeapNode min = heap1.insert(3);
+			int size1 = heap1.size();
+			heap1.meld(heap2);
+			if (heap1.empty()) {
+				setFailed("result empty!");
+			}
+			if (heap1.size() != size1 + heap2.size()) {
+				setFailed("melded heap size (" + heap1.size() + "!= heap1 (" + size1 + ") + heap2 (" + heap2.size()
+						+ ")");
+			}
+			if (heap1.findMin() != min) {
+				setFailed("findMin after meld failed");
+			}
+		}
+	}
+
+	static private class TestMeld3 extends Test {
+		public TestMeld3() {
+			super("Meld this empty heap with other nonempty");
+		}
+
+		protected void test() {
+			FibonacciHeap heap1 = new FibonacciHeap();
+			FibonacciHeap heap2 = new FibonacciHeap();
+			FibonacciHeap.HeapNode min = heap2.insert(3);
+			int size1 = heap1.size();
+			heap1.meld(heap2);
+			if (heap1.empty()) {
+				setFailed("result empty!");
+			}
+			if (heap2.size() != size1 + heap2.size()) {
+				setFailed("melded heap size (" + heap1.size() + ") != heap1 (" + size1 + ") + heap2 (" + heap2.size()
+						+ ")");
+			}
+			if (heap1.findMin() != min) {
+				setFailed("findMin after meld failed");
+			}
+		}
+	}
+
+	static private class TestMeld4 extends Test {
+		public TestMeld4() {
+			super("Meld nonempty heap with other nonempty");
+		}
+
+		protected void test() {
+			FibonacciHeap heap1 = new FibonacciHeap();
+			FibonacciHeap heap2 = new FibonacciHeap();
+			heap1.insert(5);
+			heap1.insert(17);
+			int size1 = heap1.size();
+			FibonacciHeap.HeapNode min = heap2.insert(3);
+			int size2 = heap2.size();
+
+			heap1.meld(heap2);
+			if (heap1.empty()) {
+				setFailed("result empty!");
+			}
+			if (heap1.size() != size1 + size2) {
+				setFailed("melded heap size (" + heap1.size() + ") != heap1 (" + size1 + ") + heap2 (" + size2 + ")");
+			}
+			if (heap1.findMin() != min) {
+				setFailed("findMin after meld failed");
+			}
+		}
+	}
+
+	static private class TestMeld5 extends Test {
+		public TestMeld5() {
+			super("Meld large heaps");
+		}
+
+		protected void test() {
+			FibonacciHeap heap1 = new FibonacciHeap();
+			FibonacciHeap heap2 = new FibonacciHeap();
+			int[] vals1 = createValues(500);
+			int[] vals2 = createValues(500);
+			int min = vals1[0];
+			FibonacciHeap.HeapNode minNode = null;
+			for (int v : vals1) {
+				if (v < min) {
+					min = v;
+					minNode = heap1.insert(v);
+				} else {
+					heap1.insert(v);
+				}
+			}
+			for (int v : vals2) {
+				if (v < min) {
+					min = v;
+					minNode = heap1.insert(v);
+				} else {
+					heap2.insert(v);
+				}
+			}
+			int size1 = heap1.size();
+			int size2 = heap2.size();
+
+			heap1.meld(heap2);
+			if (heap1.empty()) {
+				setFailed("result empty!");
+			}
+			if (heap1.size() != size1 + size2) {
+				setFailed("melded heap size (" + heap1.size() + ") != heap1 (" + size1 + ") + heap2 (" + size2 + ")");
+			}
+			if (heap1.findMin() != minNode) {
+				setFailed("findMin after meld failed");
+			}
+		}
+	}
+
+	static private class TestInsert extends Test {
+		public TestInsert() {
+			super("Check size each insert");
+		}
+
+		protected void test() {
+			int[] vals = createValues(100);
+
+			FibonacciHeap heap1 = new FibonacciHeap();
+			for (int i = 0; i < vals.length; ++i) {
+				if (heap1.size() != i) {
+					setFailed("size is " + i + " but size() says " + heap1.size());
+					break;
+				}
+				heap1.insert(vals[i]);
+			}
+		}
+	}
+
+	static private class TestFindMin1 extends Test {
+		public TestFindMin1() {
+			super("Check findMin each unsorted insert");
+		}
+
+		protected void test() {
+
+			int[] vals = createValues(100);
+			int min = vals[0];
+			FibonacciHeap.HeapNode minNode = null;
+			FibonacciHeap heap1 = new FibonacciHeap();
+
+			for (int i = 0; i < vals.length; ++i) {
+				if (vals[i] < min) {
+					min = vals[i];
+					minNode = heap1.insert(vals[i]);
+				} else {
+					if (minNode == null) {
+						minNode = heap1.insert(vals[i]);
+					} else {
+						heap1.insert(vals[i]);
+					}
+				}
+				if (heap1.findMin() != minNode) {
+					setFailed("min is " + min + "but findMin() says " + heap1.findMin());
+					break;
+				}
+			}
+		}
+	}
+
+	static private class TestFindMin2 extends Test {
+		public TestFindMin2() {
+			super("Check findMin each sorted insert");
+		}
+
+		protected void test() {
+			int[] vals = createValues(100);
+			Arrays.sort(vals);
+			FibonacciHeap heap1 = new FibonacciHeap();
+			for (int i = vals.length - 1; i >= 0; --i) {
+				FibonacciHeap.HeapNode min = heap1.insert(vals[i]);
+				if (heap1.findMin() != min) {
+					setFailed("min is " + vals[i] + "but findMin() says " + heap1.findMin());
+					break;
+				}
+			}
+		}
+	}
+
+	static private class TestDeleteMin extends Test {
+		public TestDeleteMin() {
+			super("Check findMin after each deleteMin");
+		}
+
+		protected void test() {
+
+			int[] vals = createValues(100);
+			FibonacciHeap heap1 = new FibonacciHeap();
+
+			for (int i = 0; i < vals.length; i++) {
+				heap1.insert(vals[i]);
+			}
+
+			Arrays.sort(vals);
+			for (int i = 0; i < vals.length; i++) {
+				if (heap1.findMin().getKey() != vals[i]) {
+					setFailed("min is " + vals[i] + " but findMin() says " + heap1.findMin());
+					break;
+				}
+				heap1.deleteMin();
+			}
+		}
+	}
+
+	static private class TestDelete extends Test {
+		public TestDelete() {
+			super("Test delete");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[vals.length];
+			FibonacciHeap heap1 = new FibonacciHeap();
+
+			for (int i = 0; i < vals.length; i++) {
+				nodes[i] = heap1.insert(vals[i]);
+			}
+
+			for (int i = 0; i < nodes.length; i++) {
+				FibonacciHeap.HeapNode node = nodes[i];
+				heap1.delete(node);
+			}
+
+			if (!heap1.empty()) {
+				setFailed("Heap is not empty after deleting all nodes");
+			}
+		}
+	}
+
+	static private class TestDecreaseKey extends Test {
+		public TestDecreaseKey() {
+			super("Test decreaseKey");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[vals.length];
+			FibonacciHeap heap1 = new FibonacciHeap();
+
+			for (int i = 0; i < vals.length; i++) {
+				nodes[i] = heap1.insert(vals[i]);
+			}
+
+			for (int i = 0; i < nodes.length; i++) {
+				FibonacciHeap.HeapNode node = nodes[i];
+				long totalCutsBefore = heap1.metrics().cuts();
+				int parentKey = -100;
+				int nodeKey = -99;
+				if (node.parent != null) {
+					parentKey = node.parent.key;
+					nodeKey = node.key;
+					heap1.decreaseKey(node, nodeKey - parentKey);
+					if (node.key != parentKey) {
+						setFailed("Node's key should be: " + parentKey + ", instead of: " + node.key);
+					}
+				} else if (node.key > 0) {
+					nodeKey = node.key;
+					heap1.decreaseKey(node, 1);
+					if (node.key != nodeKey - 1) {
+						setFailed("Node's key should be: " + (nodeKey - 1) + ", instead of: " + node.key);
+					}
+				} else {
+					heap1.delete(node);
+					continue;
+				}
+
+				// Check how many cuts are supposed to happen
+				int expectedCuts = 0;
+				if (node.parent != null) {
+					expectedCuts++;
+					FibonacciHeap.HeapNode iterator = node.parent;
+					while (iterator.parent != null && iterator.isMarked) {
+						expectedCuts++;
+						iterator = iterator.parent;
+					}
+				}
+				if (node.key > 0) {
+					heap1.decreaseKey(node, 1);
+				} else {
+					heap1.delete(node);
+					continue;
+				}
+				long totalCutsAfter = heap1.metrics().cuts();
+				long expectedTotalCutsAfter = totalCutsBefore + expectedCuts;
+				if (totalCutsAfter != expectedTotalCutsAfter) {
+					setFailed("Number of total cuts is not as expected. Total found: " + totalCutsAfter
+							+ " , total expected: " + expectedTotalCutsAfter + " , expected cuts for this node: "
+							+ expectedCuts);
+					return;
+				}
+				heap1.delete(node);
+			}
+
+			if (!heap1.empty()) {
+				setFailed("Heap is not empty after deleting all nodes");
+			}
+		}
+	}
+
+	static private class TestPotential extends Test {
+		public TestPotential() {
+			super("Test potential by recursively counting marked nodes and then number of trees");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(10000);
+			FibonacciHeap heap1 = new FibonacciHeap();
+
+			for (int val : vals) {
+				heap1.insert(val);
+			}
+
+			int markedCount = countMarkedNodes(heap1.findMin());
+			int treesCount = countRootNodes(heap1.findMin());
+
+			if (heap1.potential() != treesCount + 2 * markedCount) {
+				setFailed(
+						"Wrong potential. Number of marked nodes: " + markedCount + ", number of trees: " + treesCount);
+			}
+		}
+
+		private int countRootNodes(FibonacciHeap.HeapNode min) {
+			int rootCount = 0;
+
+			FibonacciHeap.HeapNode iterator = min;
+			do {
+				if (!iterator.isSentinel()) {
+					rootCount++;
+				}
+				iterator = iterator.right;
+			} while (iterator != min);
+
+			return rootCount;
+		}
+
+		private int countMarkedNodes(FibonacciHeap.HeapNode node) {
+			if (node == null) {
+				return 0;
+			}
+			int markedCount = 0;
+			FibonacciHeap.HeapNode iterator = node;
+			do {
+				if (!iterator.isSentinel() && iterator.isMarked) {
+					markedCount++;
+				}
+				markedCount += countMarkedNodes(node.child);
+				iterator = iterator.right;
+			} while (iterator != node);
+			return markedCount;
+		}
+	}
+
+	static private class TestEmpty extends Test {
+		public TestEmpty() {
+			super("Check empty/size after insert and deleteMin");
+		}
+
+		protected void test() {
+
+			FibonacciHeap heap1 = new FibonacciHeap();
+			int size = 0;
+
+			for (int i = 10; i < 30; ++i) {
+				if (!heap1.empty()) {
+					setFailed("empty but empty() returns false");
+					break;
+				}
+				if (heap1.size() != size) {
+					setFailed("size is " + size + " but size() returns " + heap1.size());
+					break;
+				}
+				for (int j = 0; j < i; ++j) {
+					heap1.insert(i);
+					++size;
+					if (heap1.empty()) {
+						setFailed("not empty but empty() returns true");
+						break;
+					}
+					if (heap1.size() != size) {
+						setFailed("size is " + size + " but size() returns " + heap1.size());
+						break;
+					}
+				}
+				for (int j = 0; j < i; ++j) {
+					if (heap1.empty()) {
+						setFailed("not empty but empty() returns true");
+						break;
+					}
+					heap1.deleteMin();
+					--size;
+					if (heap1.size() != size) {
+						setFailed("size is " + size + " but size() returns " + heap1.size());
+						break;
+					}
+				}
+				if (!heap1.empty()) {
+					setFailed("empty but empty() returns false");
+					break;
+				}
+			}
+		}
+	}
+
+	static private class TestIntHeap extends Test {
+		public TestIntHeap() {
+			super("Check IntFibonacciHeap deleteMin order after decreaseKey, delete and meld");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			int[] keys = vals.clone();
+			int[] handles = new int[vals.length];
+			IntFibonacciHeap heap1 = new IntFibonacciHeap();
+
+			for (int i = 0; i < vals.length; i++) {
+				handles[i] = heap1.insert(vals[i]);
+			}
+			// a deleteMin builds trees, so decreaseKey and delete have parents to cut from
+			for (int i = 0; i < handles.length; i++) {
+				if (handles[i] == heap1.findMin()) {
+					keys[i] = Integer.MAX_VALUE;
+				}
+			}
+			heap1.deleteMin();
+
+			int lastDeleted = IntFibonacciHeap.NONE;
+			for (int i = 0; i < handles.length; i++) {
+				if (keys[i] == Integer.MAX_VALUE) {
+					continue;
+				}
+				if (i % 5 == 1) {
+					heap1.delete(handles[i]);
+					if (heap1.contains(handles[i])) {
+						setFailed("deleted handle is still in the heap");
+						return;
+					}
+					keys[i] = Integer.MAX_VALUE;
+					lastDeleted = handles[i];
+				} else if (i % 3 == 0) {
+					int delta = keys[i] % 7;
+					heap1.decreaseKey(handles[i], delta);
+					keys[i] -= delta;
+				}
+			}
+			int reused = heap1.insert(42);
+			if (reused != lastDeleted) {
+				setFailed("slot of deleted node was not reused");
+				return;
+			}
+			heap1.delete(reused);
+
+			IntFibonacciHeap heap2 = new IntFibonacciHeap();
+			for (int i = 0; i < vals.length / 2; i++) {
+				heap2.insert(vals[i] + 1_000_000);
+			}
+			heap1.meld(heap2);
+			if (!heap2.empty()) {
+				setFailed("meld did not empty the other heap");
+				return;
+			}
+
+			int[] expected = new int[heap1.size()];
+			int n = 0;
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != Integer.MAX_VALUE) {
+					expected[n++] = keys[i];
+				}
+			}
+			for (int i = 0; i < vals.length / 2; i++) {
+				expected[n++] = vals[i] + 1_000_000;
+			}
+			if (n != expected.length) {
+				setFailed("size is " + n + " but size() says " + expected.length);
+				return;
+			}
+			Arrays.sort(expected);
+
+			for (int i = 0; i < expected.length; i++) {
+				if (heap1.getKey(heap1.findMin()) != expected[i]) {
+					setFailed("min is " + expected[i] + " but findMin() says " + heap1.getKey(heap1.findMin()));
+					return;
+				}
+				heap1.deleteMin();
+			}
+			if (!heap1.empty() || heap1.findMin() != IntFibonacciHeap.NONE) {
+				setFailed("Heap is not empty after deleting all nodes");
+			}
+		}
+	}
+
+	static private class TestLongDoubleHeaps extends Test {
+		public TestLongDoubleHeaps() {
+			super("Check LongFibonacciHeap and DoubleFibonacciHeap deleteMin order, including negative keys");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			LongFibonacciHeap longHeap = new LongFibonacciHeap();
+			DoubleFibonacciHeap doubleHeap = new DoubleFibonacciHeap();
+			long[] longKeys = new long[vals.length];
+			double[] doubleKeys = new double[vals.length];
+			int[] longHandles = new int[vals.length];
+			int[] doubleHandles = new int[vals.length];
+
+			for (int i = 0; i < vals.length; i++) {
+				longKeys[i] = (vals[i] - 50_000) * 1_000_000_000L;
+				doubleKeys[i] = (vals[i] - 50_000) / 3.0;
+				longHandles[i] = longHeap.insert(longKeys[i]);
+				doubleHandles[i] = doubleHeap.insert(doubleKeys[i]);
+			}
+			longHeap.insert(Long.MAX_VALUE);
+			doubleHeap.insert(Double.POSITIVE_INFINITY);
+			longHeap.deleteMin();
+			doubleHeap.deleteMin();
+			Arrays.sort(longKeys);
+			Arrays.sort(doubleKeys);
+			longKeys[0] = Long.MAX_VALUE;
+			doubleKeys[0] = Double.POSITIVE_INFINITY;
+
+			for (int i = 0; i < vals.length; i += 3) {
+				if (longHeap.contains(longHandles[i])) {
+					long key = longHeap.getKey(longHandles[i]);
+					longHeap.decreaseKey(longHandles[i], 7_000_000_000L);
+					longKeys[indexOf(longKeys, key)] = key - 7_000_000_000L;
+				}
+				if (doubleHeap.contains(doubleHandles[i])) {
+					double key = doubleHeap.getKey(doubleHandles[i]);
+					doubleHeap.decreaseKey(doubleHandles[i], 0.5);
+					doubleKeys[indexOf(doubleKeys, key)] = key - 0.5;
+				}
+			}
+			Arrays.sort(longKeys);
+			Arrays.sort(doubleKeys);
+
+			for (int i = 0; i < vals.length; i++) {
+				if (longHeap.getKey(longHeap.findMin()) != longKeys[i]) {
+					setFailed("min is " + longKeys[i] + " but findMin() says " + longHeap.getKey(longHeap.findMin()));
+					return;
+				}
+				if (doubleHeap.getKey(doubleHeap.findMin()) != doubleKeys[i]) {
+					setFailed("min is " + doubleKeys[i] + " but findMin() says "
+							+ doubleHeap.getKey(doubleHeap.findMin()));
+					return;
+				}
+				longHeap.deleteMin();
+				doubleHeap.deleteMin();
+			}
+			if (!longHeap.empty() || !doubleHeap.empty()) {
+				setFailed("Heap is not empty after deleting all nodes");
+			}
+		}
+
+		private static int indexOf(long[] keys, long key) {
+			int i = 0;
+			while (keys[i] != key) {
+				i++;
+			}
+			return i;
+		}
+
+		private static int indexOf(double[] keys, double key) {
+			int i = 0;
+			while (keys[i] != key) {
+				i++;
+			}
+			return i;
+		}
+	}
+
+	static private class TestKeyedHeap extends Test {
+		public TestKeyedHeap() {
+			super("Check KeyedFibonacciHeap order and values with natural ordering and a comparator");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			KeyedFibonacciHeap<Integer, String> natural = new KeyedFibonacciHeap<>();
+			KeyedFibonacciHeap<Integer, String> reversed = new KeyedFibonacciHeap<>(Comparator.reverseOrder());
+			List<KeyedFibonacciHeap.Entry<Integer, String>> entries = new ArrayList<>();
+
+			for (int val : vals) {
+				entries.add(natural.insert(val, "v" + val));
+				reversed.insert(val, "v" + val);
+			}
+			KeyedFibonacciHeap.Entry<Integer, String> deletedMin = natural.findMin();
+			natural.deleteMin();
+			// move every third key below all others, and delete every fifth node
+			for (int i = 0; i < entries.size(); i++) {
+				KeyedFibonacciHeap.Entry<Integer, String> entry = entries.get(i);
+				if (entry == deletedMin) {
+					continue;
+				}
+				if (i % 5 == 0) {
+					natural.delete(entry);
+				} else if (i % 3 == 0) {
+					natural.decreaseKey(entry, -entry.getKey());
+				}
+			}
+
+			// the entries of a melded heap stay valid, and entries that left the heap are rejected
+			KeyedFibonacciHeap<Integer, String> other = new KeyedFibonacciHeap<>();
+			List<KeyedFibonacciHeap.Entry<Integer, String>> otherEntries = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				int key = 1000000 + i;
+				otherEntries.add(other.insert(key, "v" + key));
+			}
+			int size = natural.size();
+			natural.meld(other);
+			if (!other.empty() || natural.size() != size + 100) {
+				setFailed("meld left " + other.size() + " entries in heap2 and " + natural.size() + " in the heap");
+				return;
+			}
+			natural.decreaseKey(otherEntries.get(7), -otherEntries.get(7).getKey());
+			natural.delete(otherEntries.get(8));
+			try {
+				natural.delete(deletedMin);
+				setFailed("deleting an entry that was deleted before did not throw");
+				return;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+
+			int last = Integer.MIN_VALUE;
+			while (!natural.empty()) {
+				KeyedFibonacciHeap.Entry<Integer, String> min = natural.findMin();
+				if (min.getKey() < last || !min.getValue().equals("v" + Math.abs(min.getKey()))) {
+					setFailed("wrong order or value: " + min + " after " + last);
+					return;
+				}
+				last = min.getKey();
+				natural.deleteMin();
+			}
+
+			Arrays.sort(vals);
+			for (int i = vals.length - 1; i >= 0; i--) {
+				if (reversed.findMin().getKey() != vals[i] || !reversed.findMin().getValue().equals("v" + vals[i])) {
+					setFailed("max is " + vals[i] + " but reversed findMin() says " + reversed.findMin());
+					return;
+				}
+				reversed.deleteMin();
+			}
+
+			// melding a bigger heap into a smaller one copies the nodes of the smaller one, and all the entries
+			// stay valid
+			KeyedFibonacciHeap<Integer, String> small = new KeyedFibonacciHeap<>();
+			List<KeyedFibonacciHeap.Entry<Integer, String>> smallEntries = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				smallEntries.add(small.insert(2 * i, "v" + 2 * i));
+			}
+			KeyedFibonacciHeap<Integer, String> big = new KeyedFibonacciHeap<>();
+			List<KeyedFibonacciHeap.Entry<Integer, String>> bigEntries = new ArrayList<>();
+			for (int val : vals) {
+				bigEntries.add(big.insert(val, "v" + val));
+			}
+			big.deleteMin();
+			small.meld(big);
+			if (!big.empty() || small.size() != 10 + vals.length - 1) {
+				setFailed("meld of a bigger heap left " + big.size() + " entries in heap2 and " + small.size()
+						+ " in the heap");
+				return;
+			}
+			KeyedFibonacciHeap.Entry<Integer, String> decreased = bigEntries.get(vals.length - 1);
+			small.decreaseKey(decreased, -1);
+			small.delete(smallEntries.get(3));
+			if (small.findMin() != decreased) {
+				setFailed("findMin is " + small.findMin() + " instead of " + decreased);
+				return;
+			}
+			int count = 0;
+			last = Integer.MIN_VALUE;
+			while (!small.empty()) {
+				KeyedFibonacciHeap.Entry<Integer, String> min = small.findMin();
+				if (min.getKey() < last) {
+					setFailed("wrong order after melding a bigger heap: " + min + " after " + last);
+					return;
+				}
+				last = min.getKey();
+				small.deleteMin();
+				count++;
+			}
+			if (count != 10 + vals.length - 2) {
+				setFailed(count + " entries left the heap after melding a bigger heap");
+			}
+		}
+	}
+
+	static private class TestDeepChain extends Test {
+		public TestDeepChain() {
+			super("Check cascading cut up a long chain of marked nodes and printing a deep tree");
+		}
+
+		@Override
+		protected void test() {
+			int length = 100_000;
+			FibonacciHeap heap = new FibonacciHeap();
+			FibonacciHeap.HeapNode bottom = markedChain(heap, length);
+
+			int depth = 0;
+			for (FibonacciHeap.HeapNode node = bottom; node.parent != null; node = node.parent) {
+				depth++;
+			}
+			if (depth != length + 1) {
+				setFailed("chain depth is " + depth + " instead of " + (length + 1));
+				return;
+			}
+
+			long totalCutsBefore = heap.metrics().cuts();
+			heap.decreaseKey(bottom, bottom.getKey());
+			long cuts = heap.metrics().cuts() - totalCutsBefore;
+			if (cuts != length + 1) {
+				setFailed("decreaseKey made " + cuts + " cuts instead of " + (length + 1));
+				return;
+			}
+			if (heap.findMin() != bottom) {
+				setFailed("findMin after decreaseKey failed");
+				return;
+			}
+
+			FibonacciHeap small = new FibonacciHeap();
+			markedChain(small, 50);
+			StringBuilder out = new StringBuilder();
+			try {
+				small.print(out);
+			} catch (IOException e) {
+				setFailed(e);
+				return;
+			}
+			int lines = out.toString().split("\n").length;
+			// the nodes, the potential, the counters and the two banners
+			if (lines != small.size() + 4) {
+				setFailed("print wrote " + lines + " lines for " + small.size() + " nodes");
+			}
+		}
+
+		/**
+		 * builds a heap holding a chain of length marked nodes, each the only child of the one above it,
+		 * and returns the bottom of the chain. each step inserts keys smaller than the root that consolidate
+		 * into a new root above it, deletes the nodes it doesn't need and cuts the old root's leaf to mark it
+		 */
+		private static FibonacciHeap.HeapNode markedChain(FibonacciHeap heap, int length) {
+			int key = 5 * length + 20;
+			heap.insert(key - 5);
+			heap.insert(key - 4);
+			FibonacciHeap.HeapNode leaf = heap.insert(key - 3);
+			FibonacciHeap.HeapNode bottom = heap.insert(key - 2);
+			FibonacciHeap.HeapNode extra = heap.insert(key - 1);
+			heap.deleteMin();
+			heap.delete(extra);
+
+			for (int i = 0; i < length; i++) {
+				key -= 5;
+				heap.insert(key - 5);
+				heap.insert(key - 4);
+				FibonacciHeap.HeapNode newLeaf = heap.insert(key - 3);
+				FibonacciHeap.HeapNode extra1 = heap.insert(key - 2);
+				FibonacciHeap.HeapNode extra2 = heap.insert(key - 1);
+				heap.deleteMin();
+				heap.delete(extra1);
+				heap.delete(extra2);
+				heap.delete(leaf);
+				leaf = newLeaf;
+			}
+			return bottom;
+		}
+	}
+
+	static private class TestMetrics extends Test {
+		public TestMetrics() {
+			super("Check per heap metrics, heaps without metrics and the JVM-wide totals");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			FibonacciHeap counted = new FibonacciHeap(new FibonacciHeapMetrics(true));
+			FibonacciHeap uncounted = new FibonacciHeap(null);
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[vals.length];
+			long globalLinksBefore = FibonacciHeapMetrics.globalLinks();
+			long globalCutsBefore = FibonacciHeapMetrics.globalCuts();
+
+			for (int i = 0; i < vals.length; i++) {
+				nodes[i] = counted.insert(vals[i]);
+				uncounted.insert(vals[i]);
+			}
+			counted.deleteMin();
+			uncounted.deleteMin();
+			FibonacciHeapMetrics metrics = counted.metrics();
+			if (metrics.links() != vals.length - 1 - counted.potential()) {
+				setFailed("links: " + metrics.links() + " but " + counted.potential() + " trees are left of "
+						+ (vals.length - 1) + " nodes");
+				return;
+			}
+			int maxRank = 0;
+			int[] counters = counted.countersRep();
+			for (int rank = 0; rank < counters.length; rank++) {
+				if (counters[rank] > 0) {
+					maxRank = rank;
+				}
+			}
+			if (metrics.consolidates() != 1 || metrics.rootListLength() != vals.length - 1
+					|| metrics.maxRank() != maxRank) {
+				setFailed("wrong consolidate metrics: " + metrics);
+				return;
+			}
+
+			int decreases = 0;
+			for (FibonacciHeap.HeapNode node : nodes) {
+				if (node != null && node.getKey() > 0 && node != counted.findMin() && node.parent != null) {
+					counted.decreaseKey(node, node.getKey());
+					decreases++;
+				}
+			}
+			long histogramTotal = 0;
+			for (long count : metrics.cutDepths()) {
+				histogramTotal += count;
+			}
+			if (histogramTotal != decreases || metrics.cuts() == 0) {
+				setFailed("histogram counts " + histogramTotal + " operations of " + decreases + ", cuts: "
+						+ metrics.cuts());
+				return;
+			}
+			if (FibonacciHeapMetrics.globalLinks() - globalLinksBefore != metrics.links()
+					|| FibonacciHeapMetrics.globalCuts() - globalCutsBefore != metrics.cuts()) {
+				setFailed("JVM-wide totals don't match the counts of the only aggregating heap");
+				return;
+			}
+			if (uncounted.metrics() != null || uncounted.size() != counted.size()) {
+				setFailed("heap without metrics");
+				return;
+			}
+
+			// a heap created with the default constructor counts for itself only, not in the deprecated totals
+			FibonacciHeap plain = new FibonacciHeap();
+			long totalLinksBefore = FibonacciHeap.totalLinks();
+			long totalCutsBefore = FibonacciHeap.totalCuts();
+			for (int i = 0; i < vals.length; i++) {
+				nodes[i] = plain.insert(vals[i]);
+			}
+			plain.deleteMin();
+			for (FibonacciHeap.HeapNode node : nodes) {
+				if (node.parent != null && node.getKey() > 0) {
+					plain.decreaseKey(node, node.getKey());
+				}
+			}
+			if (plain.metrics().links() == 0 || plain.metrics().cuts() == 0
+					|| FibonacciHeap.totalLinks() != totalLinksBefore || FibonacciHeap.totalCuts() != totalCutsBefore) {
+				setFailed("a default heap doesn't count for itself only");
+			}
+		}
+	}
+
+	static private class TestInsertAll extends Test {
+		public TestInsertAll() {
+			super("Check insertAll and fromArray, with and without consolidating");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			FibonacciHeap heap1 = new FibonacciHeap();
+			heap1.insert(vals[0]);
+			FibonacciHeap.HeapNode[] nodes = heap1.insertAll(vals, 1, vals.length - 1);
+			if (nodes.length != vals.length - 1 || nodes[0].getKey() != vals[1]) {
+				setFailed("insertAll returned wrong nodes");
+				return;
+			}
+			if (heap1.size() != vals.length || heap1.potential() != vals.length) {
+				setFailed("size " + heap1.size() + ", potential " + heap1.potential() + " after insertAll");
+				return;
+			}
+
+			FibonacciHeap heap2 = FibonacciHeap.fromArray(vals, true);
+			if (heap2.potential() > 32) {
+				setFailed("fromArray with consolidate left " + heap2.potential() + " trees");
+				return;
+			}
+			try {
+				heap2.insertAll(vals, 10, vals.length);
+				setFailed("insertAll past the end of the array didn't throw");
+				return;
+			} catch (IndexOutOfBoundsException e) {
+				// expected
+			}
+
+			Arrays.sort(vals);
+			for (int val : vals) {
+				if (heap1.findMin().getKey() != val || heap2.findMin().getKey() != val) {
+					setFailed("min is " + val + " but findMin() says " + heap1.findMin().getKey() + ", "
+							+ heap2.findMin().getKey());
+					return;
+				}
+				heap1.deleteMin();
+				heap2.deleteMin();
+			}
+			if (!heap1.empty() || !heap2.empty()) {
+				setFailed("Heap is not empty after deleting all nodes");
+			}
+		}
+	}
+
+	static private class TestDeleteMinBatch extends Test {
+		public TestDeleteMinBatch() {
+			super("Check deleteMin(k, out) and drainTo against sorted values");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			FibonacciHeap heap1 = new FibonacciHeap();
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[vals.length];
+			for (int i = 0; i < vals.length; i++) {
+				nodes[i] = heap1.insert(vals[i] + 1);
+			}
+			// a deleteMin and some cuts leave trees and marked nodes for the batches to work on
+			FibonacciHeap.HeapNode deletedMin = heap1.findMin();
+			heap1.deleteMin();
+			for (int i = 0; i < nodes.length; i += 7) {
+				if (nodes[i].parent != null) {
+					heap1.decreaseKey(nodes[i], 1);
+				}
+			}
+			int[] expected = new int[heap1.size()];
+			int n = 0;
+			for (FibonacciHeap.HeapNode node : nodes) {
+				if (node != deletedMin) {
+					expected[n++] = node.getKey();
+				}
+			}
+			Arrays.sort(expected);
+
+			int[] out = new int[100];
+			int done = 0;
+			for (int k = 1; done < expected.length; k = k % 100 + 1) {
+				int deleted = heap1.deleteMin(k, out);
+				for (int i = 0; i < deleted; i++) {
+					if (out[i] != expected[done + i]) {
+						setFailed("key " + (done + i) + " is " + expected[done + i] + " but deleteMin(k) says " + out[i]);
+						return;
+					}
+				}
+				done += deleted;
+				if (done > expected.length / 2) {
+					break;
+				}
+			}
+
+			int[] drained = new int[expected.length];
+			int[] index = { done };
+			int deleted = heap1.drainTo(key -> drained[index[0]++] = key, Integer.MAX_VALUE);
+			if (done + deleted != expected.length || !heap1.empty()) {
+				setFailed("drainTo deleted " + deleted + " of " + (expected.length - done) + " nodes");
+				return;
+			}
+			for (int i = done; i < expected.length; i++) {
+				if (drained[i] != expected[i]) {
+					setFailed("key " + i + " is " + expected[i] + " but drainTo says " + drained[i]);
+					return;
+				}
+			}
+			if (heap1.drainTo(key -> setFailed("drained from an empty heap"), 5) != 0) {
+				setFailed("drainTo on an empty heap returned a count");
+			}
+		}
+	}
+
+	static private class TestConcurrentHeap extends Test {
+		private static final int THREADS = 4;
+		private static final int PER_THREAD = 20_000;
+
+		public TestConcurrentHeap() {
+			super("Check ConcurrentFibonacciHeap with concurrent insert, decreaseKey, delete and deleteMin");
+		}
+
+		@Override
+		protected void test() {
+			ConcurrentFibonacciHeap heap = new ConcurrentFibonacciHeap();
+			CyclicBarrier barrier = new CyclicBarrier(THREADS);
+			int[][] expected = new int[THREADS][];
+			int[][] popped = new int[THREADS][THREADS * PER_THREAD];
+			int[] poppedCount = new int[THREADS];
+			Thread[] threads = new Thread[THREADS];
+			Exception[] errors = new Exception[THREADS];
+
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				threads[t] = new Thread(() -> {
+					try {
+						FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[PER_THREAD];
+						int[] keys = new int[PER_THREAD];
+						for (int i = 0; i < PER_THREAD; i++) {
+							keys[i] = 10 * (i * THREADS + thread) + 5;
+							nodes[i] = heap.insert(keys[i]);
+						}
+						barrier.await();
+						int kept = 0;
+						for (int i = 0; i < PER_THREAD; i++) {
+							if (i % 5 == 0) {
+								heap.delete(nodes[i]);
+								continue;
+							}
+							if (i % 3 == 0) {
+								heap.decreaseKey(nodes[i], thread + 1);
+								keys[i] -= thread + 1;
+							}
+							keys[kept++] = keys[i];
+						}
+						expected[thread] = Arrays.copyOf(keys, kept);
+						barrier.await();
+						while (true) {
+							popped[thread][poppedCount[thread]++] = heap.deleteMin();
+						}
+					} catch (NoSuchElementException e) {
+						poppedCount[thread]--;
+					} catch (Exception e) {
+						errors[thread] = e;
+					}
+				});
+				threads[t].start();
+			}
+
+			int[] allExpected = new int[0];
+			int[] allPopped = new int[0];
+			for (int t = 0; t < THREADS; t++) {
+				try {
+					threads[t].join();
+				} catch (InterruptedException e) {
+					setFailed(e);
+					return;
+				}
+				if (errors[t] != null) {
+					setFailed(errors[t]);
+					return;
+				}
+				allExpected = concat(allExpected, expected[t], expected[t].length);
+				allPopped = concat(allPopped, popped[t], poppedCount[t]);
+			}
+			Arrays.sort(allExpected);
+			Arrays.sort(allPopped);
+			if (!Arrays.equals(allExpected, allPopped) || !heap.empty()) {
+				setFailed("popped " + allPopped.length + " keys, expected " + allExpected.length
+						+ " (or different keys)");
+			}
+		}
+
+		private static int[] concat(int[] a, int[] b, int bLength) {
+			int[] result = Arrays.copyOf(a, a.length + bLength);
+			System.arraycopy(b, 0, result, a.length, bLength);
+			return result;
+		}
+	}
+
+	static private class TestConcurrentFailure extends Test {
+		private static final int THREADS = 4;
+		private static final int PER_THREAD = 20_000;
+
+		public TestConcurrentFailure() {
+			super("Check a failing ConcurrentFibonacciHeap operation throws in its own thread only");
+		}
+
+		@Override
+		protected void test() {
+			ConcurrentFibonacciHeap heap = new ConcurrentFibonacciHeap();
+			FibonacciHeap.HeapNode foreign = new FibonacciHeap().insert(1);
+			int[] popped = new int[THREADS];
+			int[] failures = new int[THREADS];
+			Exception[] errors = new Exception[THREADS];
+			Thread[] threads = new Thread[THREADS];
+
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				threads[t] = new Thread(() -> {
+					try {
+						for (int i = 0; i < PER_THREAD; i++) {
+							if (thread == 0) {
+								// fails in whichever thread combines it
+								try {
+									if (i % 3 == 0) {
+										heap.decreaseKey(null, 1);
+									} else if (i % 3 == 1) {
+										heap.decreaseKey(foreign, 1);
+									} else {
+										heap.delete(foreign);
+									}
+								} catch (NullPointerException | IllegalArgumentException e) {
+									failures[thread]++;
+								}
+							} else {
+								heap.insert(i);
+								if (i % 2 == 1) {
+									heap.deleteMin();
+									heap.deleteMin();
+									popped[thread] += 2;
+								}
+							}
+						}
+					} catch (Exception e) {
+						errors[thread] = e;
+					}
+				});
+				threads[t].start();
+			}
+
+			for (int t = 0; t < THREADS; t++) {
+				try {
+					threads[t].join(TimeUnit.SECONDS.toMillis(20));
+				} catch (InterruptedException e) {
+					setFailed(e);
+					return;
+				}
+				if (threads[t].isAlive()) {
+					setFailed("thread " + t + " is stuck waiting for its request");
+					return;
+				}
+				if (errors[t] != null) {
+					setFailed(errors[t]);
+					return;
+				}
+			}
+			if (failures[0] != PER_THREAD) {
+				setFailed(failures[0] + " of " + PER_THREAD + " failing operations threw");
+				return;
+			}
+			int inserted = (THREADS - 1) * PER_THREAD;
+			int left = 0;
+			int previous = Integer.MIN_VALUE;
+			while (!heap.empty()) {
+				int key = heap.deleteMin();
+				if (key < previous) {
+					setFailed("deleteMin returned " + key + " after " + previous);
+					return;
+				}
+				previous = key;
+				left++;
+			}
+			for (int t = 1; t < THREADS; t++) {
+				left += popped[t];
+			}
+			if (left != inserted) {
+				setFailed("inserted " + inserted + " keys but deleted " + left);
+			}
+		}
+	}
+
+	static private class TestShardedHeap extends Test {
+		private static final int THREADS = 4;
+		private static final int PER_THREAD = 20_000;
+
+		public TestShardedHeap() {
+			super("Check ShardedFibonacciHeap order, and concurrent insert with exact and relaxed deleteMin");
+		}
+
+		@Override
+		protected void test() {
+			// with a single thread deleteMin is exact across the shards
+			ShardedFibonacciHeap heap = new ShardedFibonacciHeap(8);
+			int[] values = createValues(0);
+			for (int value : values) {
+				heap.insert(value);
+			}
+			int[] sorted = values.clone();
+			Arrays.sort(sorted);
+			if (heap.size() != sorted.length || heap.findMin() != sorted[0]) {
+				setFailed("size " + heap.size() + " or min " + heap.findMin() + " is wrong");
+				return;
+			}
+			for (int i = 0; i < sorted.length; i++) {
+				int key = heap.deleteMin();
+				if (key != sorted[i]) {
+					setFailed("deleteMin " + i + " returned " + key + " instead of " + sorted[i]);
+					return;
+				}
+			}
+			if (!heap.empty()) {
+				setFailed("heap is not empty");
+				return;
+			}
+
+			for (boolean relaxed : new boolean[] { false, true }) {
+				if (!popAll(new ShardedFibonacciHeap(THREADS), relaxed)) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * every thread inserts its own keys and then pops until the heap is empty
+		 */
+		private boolean popAll(ShardedFibonacciHeap heap, boolean relaxed) {
+			CyclicBarrier barrier = new CyclicBarrier(THREADS);
+			int[][] popped = new int[THREADS][THREADS * PER_THREAD];
+			int[] poppedCount = new int[THREADS];
+			Thread[] threads = new Thread[THREADS];
+			Exception[] errors = new Exception[THREADS];
+
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				threads[t] = new Thread(() -> {
+					try {
+						for (int i = 0; i < PER_THREAD; i++) {
+							heap.insert(i * THREADS + thread);
+						}
+						barrier.await();
+						while (true) {
+							popped[thread][poppedCount[thread]++] = relaxed ? heap.deleteMinRelaxed() : heap.deleteMin();
+						}
+					} catch (NoSuchElementException e) {
+						poppedCount[thread]--;
+					} catch (Exception e) {
+						errors[thread] = e;
+					}
+				});
+				threads[t].start();
+			}
+
+			int[] allPopped = new int[0];
+			for (int t = 0; t < THREADS; t++) {
+				try {
+					threads[t].join();
+				} catch (InterruptedException e) {
+					setFailed(e);
+					return false;
+				}
+				if (errors[t] != null) {
+					setFailed(errors[t]);
+					return false;
+				}
+				int from = allPopped.length;
+				allPopped = Arrays.copyOf(allPopped, from + poppedCount[t]);
+				System.arraycopy(popped[t], 0, allPopped, from, poppedCount[t]);
+			}
+			Arrays.sort(allPopped);
+			for (int i = 0; i < allPopped.length; i++) {
+				if (allPopped[i] != i) {
+					setFailed((relaxed ? "relaxed" : "exact") + " deleteMin lost or duplicated key " + i);
+					return false;
+				}
+			}
+			if (allPopped.length != THREADS * PER_THREAD || !heap.empty()) {
+				setFailed((relaxed ? "relaxed" : "exact") + " deleteMin popped " + allPopped.length + " keys");
+				return false;
+			}
+			return true;
+		}
+	}
+
+	static private class TestLazyDecreaseKey extends Test {
+
+		public TestLazyDecreaseKey() {
+			super("Check lazy decreaseKey with repeated decreases, deletes and deleteMins");
+		}
+
+		@Override
+		protected void test() {
+			int[] keys = createValues(0);
+			FibonacciHeap heap = new FibonacciHeap();
+			heap.setLazyDecreaseKey(true);
+			FibonacciHeap.HeapNode[] nodes = heap.insertAll(keys, 0, keys.length, true);
+			Map<FibonacciHeap.HeapNode, Integer> indexes = new HashMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				indexes.put(nodes[i], i);
+			}
+			boolean[] deleted = new boolean[keys.length];
+
+			Random rnd = new Random(12);
+			for (int round = 0; round < 20 && !heap.empty(); round++) {
+				// many decreases between two deleteMins, some of them on the same node
+				for (int j = 0; j < 2000; j++) {
+					int i = rnd.nextInt(keys.length);
+					if (deleted[i] || keys[i] == 0) {
+						continue;
+					}
+					int delta = 1 + rnd.nextInt(keys[i]);
+					heap.decreaseKey(nodes[i], delta);
+					keys[i] -= delta;
+				}
+				int i = rnd.nextInt(keys.length);
+				if (!deleted[i]) {
+					heap.delete(nodes[i]);
+					deleted[i] = true;
+				}
+				if (!checkPotential(heap)) {
+					return;
+				}
+				for (int j = 0; j < 100 && !heap.empty(); j++) {
+					int expected = Integer.MAX_VALUE;
+					for (int k = 0; k < keys.length; k++) {
+						if (!deleted[k] && keys[k] < expected) {
+							expected = keys[k];
+						}
+					}
+					FibonacciHeap.HeapNode min = heap.findMin();
+					if (min.getKey() != expected) {
+						setFailed("findMin returned " + min.getKey() + " instead of " + expected);
+						return;
+					}
+					deleted[indexes.get(min)] = true;
+					heap.deleteMin();
+				}
+			}
+			heap.setLazyDecreaseKey(false);
+			if (!checkPotential(heap)) {
+				return;
+			}
+
+			// a child decreased below its root becomes the minimum, then the root is decreased to the same key,
+			// so the child doesn't break the heap rule but is still the minimum and must be cut
+			heap = new FibonacciHeap();
+			heap.setLazyDecreaseKey(true);
+			heap.insert(0);
+			FibonacciHeap.HeapNode root = heap.insert(10);
+			FibonacciHeap.HeapNode child = heap.insert(20);
+			heap.deleteMin();
+			heap.decreaseKeyTo(child, 5);
+			heap.decreaseKeyTo(root, 5);
+			heap.deleteMin();
+			if (heap.size() != 1 || heap.findMin().getKey() != 5 || heap.findMin().iterator().hasNext()) {
+				setFailed("deleteMin of a minimum with an equal parent left size " + heap.size() + ", key "
+						+ heap.findMin().getKey());
+				return;
+			}
+			if (!checkPotential(heap)) {
+				return;
+			}
+			heap.deleteMin();
+			if (!heap.empty()) {
+				setFailed("heap isn't empty after deleting its last node");
+			}
+		}
+	}
+
+	static private class TestGraphSearch extends Test {
+		private static final int VERTICES = 2000;
+		private static final int EDGES = 8000;
+
+		public TestGraphSearch() {
+			super("Check GraphSearch shortest paths and spanning trees against a quadratic search");
+		}
+
+		@Override
+		protected void test() {
+			Random rnd = new Random(13);
+			int[] from = new int[EDGES];
+			int[] to = new int[EDGES];
+			int[] intWeights = new int[EDGES];
+			double[] doubleWeights = new double[EDGES];
+			for (int i = 0; i < EDGES; i += 2) {
+				// every edge in both directions, so the same graph serves the spanning trees
+				from[i] = to[i + 1] = rnd.nextInt(VERTICES);
+				to[i] = from[i + 1] = rnd.nextInt(VERTICES);
+				intWeights[i] = intWeights[i + 1] = rnd.nextInt(1000);
+				doubleWeights[i] = doubleWeights[i + 1] = rnd.nextDouble();
+			}
+
+			for (CsrGraph graph : new CsrGraph[] { CsrGraph.fromEdges(VERTICES, from, to, intWeights),
+					CsrGraph.fromEdges(VERTICES, from, to, doubleWeights) }) {
+				String name = graph.hasDoubleWeights() ? "double graph" : "int graph";
+				GraphSearch search = new GraphSearch(graph);
+
+				int[] sources = { 0, 7, 1500 };
+				search.shortestPaths(sources, GraphSearch.NONE);
+				double[] expected = referenceSearch(graph, sources, false);
+				for (int v = 0; v < VERTICES; v++) {
+					if (search.distance(v) != expected[v]) {
+						setFailed(name + ": distance of " + v + " is " + search.distance(v) + " instead of " + expected[v]);
+						return;
+					}
+					int parent = search.parent(v);
+					if (parent != GraphSearch.NONE && !(search.distance(parent) <= search.distance(v))) {
+						setFailed(name + ": parent of " + v + " is further than it");
+						return;
+					}
+				}
+
+				// stopping at a target settles fewer vertices but finds the same distance
+				int target = 1234;
+				int settled = search.shortestPaths(new int[] { 0 }, target);
+				expected = referenceSearch(graph, new int[] { 0 }, false);
+				if (search.distance(target) != expected[target] || settled > search.shortestPaths(0)) {
+					setFailed(name + ": early stop found " + search.distance(target) + " instead of " + expected[target]);
+					return;
+				}
+
+				search.minimumSpanningForest();
+				double weight = 0;
+				for (double w : referenceSearch(graph, null, true)) {
+					weight += w;
+				}
+				if (Math.abs(search.totalWeight() - weight) > 1e-6) {
+					setFailed(name + ": spanning forest weighs " + search.totalWeight() + " instead of " + weight);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * the keys of a quadratic Dijkstra (or Prim) from sources, or a spanning forest if sources is null
+		 */
+		private static double[] referenceSearch(CsrGraph graph, int[] sources, boolean spanningTree) {
+			int n = graph.vertices();
+			double[] keys = new double[n];
+			boolean[] done = new boolean[n];
+			Arrays.fill(keys, Double.POSITIVE_INFINITY);
+			if (sources != null) {
+				for (int source : sources) {
+					keys[source] = 0;
+				}
+			}
+			for (int round = 0; round < n; round++) {
+				int u = -1;
+				for (int v = 0; v < n; v++) {
+					if (!done[v] && (u == -1 || keys[v] < keys[u])) {
+						u = v;
+					}
+				}
+				if (keys[u] == Double.POSITIVE_INFINITY) {
+					if (sources != null) {
+						break;
+					}
+					keys[u] = 0; // root of the next tree of the forest
+				}
+				done[u] = true;
+				for (int e = graph.firstEdge(u); e < graph.firstEdge(u + 1); e++) {
+					int v = graph.target(e);
+					double key = spanningTree ? graph.weight(e) : keys[u] + graph.weight(e);
+					if (!done[v] && key < keys[v]) {
+						keys[v] = key;
+					}
+				}
+			}
+			return keys;
+		}
+	}
+
+	static private class TestMappedHeap extends Test {
+
+		public TestMappedHeap() {
+			super("Check MappedFibonacciHeap over several chunks against LongFibonacciHeap");
+		}
+
+		@Override
+		protected void test() {
+			int[] values = createValues(0);
+			LongFibonacciHeap expected = new LongFibonacciHeap();
+			// small chunks, so the nodes are spread over several mappings
+			try (MappedFibonacciHeap heap = new MappedFibonacciHeap(Files.createTempFile("test", ".slots"), 1024)) {
+				int[] handles = new int[values.length];
+				for (int i = 0; i < values.length; i++) {
+					handles[i] = heap.insert(values[i]);
+					if (expected.insert(values[i]) != handles[i]) {
+						setFailed("handle " + handles[i] + " differs from the one of LongFibonacciHeap");
+						return;
+					}
+				}
+				if (heap.mappedBytes() < 32L * values.length) {
+					setFailed("only " + heap.mappedBytes() + " bytes are mapped");
+					return;
+				}
+
+				Random rnd = new Random(14);
+				for (int round = 0; round < 50; round++) {
+					heap.deleteMin();
+					expected.deleteMin();
+					for (int j = 0; j < 100; j++) {
+						int h = handles[rnd.nextInt(handles.length)];
+						if (!expected.contains(h)) {
+							continue;
+						}
+						if (j % 10 == 0) {
+							heap.delete(h);
+							expected.delete(h);
+						} else {
+							long delta = rnd.nextInt(1000);
+							heap.decreaseKey(h, delta);
+							expected.decreaseKey(h, delta);
+						}
+					}
+					if (heap.size() != expected.size() || heap.potential() != expected.potential()
+							|| !Arrays.equals(heap.countersRep(), expected.countersRep())) {
+						setFailed("the heaps differ after round " + round + ": potential " + heap.potential()
+								+ " instead of " + expected.potential());
+						return;
+					}
+				}
+				while (!expected.empty()) {
+					if (heap.getKey(heap.findMin()) != expected.getKey(expected.findMin())) {
+						setFailed("min is " + heap.getKey(heap.findMin()) + " instead of "
+								+ expected.getKey(expected.findMin()));
+						return;
+					}
+					heap.deleteMin();
+					expected.deleteMin();
+				}
+				if (!heap.empty() || heap.findMin() != MappedFibonacciHeap.NONE) {
+					setFailed("heap is not empty");
+				}
+			} catch (IOException e) {
+				setFailed(e);
+			}
+		}
+	}
+
+	static private class TestSnapshot extends Test {
+
+		public TestSnapshot() {
+			super("Check that a heap restored from a snapshot has the same trees as the written one");
+		}
+
+		@Override
+		protected void test() {
+			try {
+				FibonacciHeap heap = new FibonacciHeap();
+				FibonacciHeap.HeapNode[] nodes = heap.insertAll(createValues(0), 0, 10000, true);
+				Random rnd = new Random(15);
+				for (int i = 0; i < 3000; i++) {
+					FibonacciHeap.HeapNode node = nodes[rnd.nextInt(nodes.length)];
+					if (node.getKey() > 0 && node.parent != null) {
+						heap.decreaseKey(node, 1 + rnd.nextInt(node.getKey()));
+					}
+				}
+				heap.insert(5);
+				heap.insert(5); // duplicates and single-node trees
+
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				heap.writeTo(out);
+				out.write(new byte[] { 1, 2, 3 }); // the reader must stop at the end of the heap
+				ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+				FibonacciHeap restored = FibonacciHeap.readFrom(in);
+				if (in.available() != 3) {
+					setFailed("the reader left " + in.available() + " bytes instead of 3");
+					return;
+				}
+
+				StringBuilder expected = new StringBuilder();
+				StringBuilder actual = new StringBuilder();
+				heap.print(expected);
+				restored.print(actual);
+				if (!expected.toString().equals(actual.toString()) || restored.size() != heap.size()
+						|| restored.potential() != heap.potential()
+						|| !Arrays.equals(restored.countersRep(), heap.countersRep())) {
+					setFailed("the restored heap differs from the written one");
+					return;
+				}
+				while (!heap.empty()) {
+					if (restored.findMin().getKey() != heap.findMin().getKey()) {
+						setFailed("restored min is " + restored.findMin().getKey() + " instead of "
+								+ heap.findMin().getKey());
+						return;
+					}
+					heap.deleteMin();
+					restored.deleteMin();
+				}
+
+				// with equal keys the restored heap must delete the same nodes, not just the same keys
+				FibonacciHeap equal = new FibonacciHeap();
+				for (int i = 0; i < 2000; i++) {
+					equal.insert(rnd.nextInt(20));
+				}
+				equal.deleteMin();
+				for (int i = 0; i < 500; i++) {
+					equal.insert(rnd.nextInt(20));
+				}
+				ByteArrayOutputStream equalOut = new ByteArrayOutputStream();
+				equal.writeTo(equalOut);
+				FibonacciHeap equalRestored = FibonacciHeap.readFrom(new ByteArrayInputStream(equalOut.toByteArray()));
+				Map<FibonacciHeap.HeapNode, Integer> positions = preorderPositions(equal);
+				Map<FibonacciHeap.HeapNode, Integer> restoredPositions = preorderPositions(equalRestored);
+				while (!equal.empty()) {
+					int expectedPosition = positions.get(equal.findMin());
+					int actualPosition = restoredPositions.get(equalRestored.findMin());
+					if (expectedPosition != actualPosition) {
+						setFailed("restored heap deleted the node at " + actualPosition + " instead of "
+								+ expectedPosition);
+						return;
+					}
+					equal.deleteMin();
+					equalRestored.deleteMin();
+				}
+
+				// a cut short snapshot is an error, not a smaller heap
+				byte[] bytes = out.toByteArray();
+				try {
+					FibonacciHeap.readFrom(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 100)));
+					setFailed("read a snapshot that was cut short");
+				} catch (EOFException e) {
+					// expected
+				}
+			} catch (IOException e) {
+				setFailed(e);
+			}
+		}
+
+		/**
+		 * maps every node of the heap to its index in the preorder of writeTo
+		 */
+		private static Map<FibonacciHeap.HeapNode, Integer> preorderPositions(FibonacciHeap heap) {
+			Map<FibonacciHeap.HeapNode, Integer> positions = new IdentityHashMap<>();
+			for (FibonacciHeap.HeapNode root : heap) {
+				addPreorder(root, positions);
+			}
+			return positions;
+		}
+
+		private static void addPreorder(FibonacciHeap.HeapNode node, Map<FibonacciHeap.HeapNode, Integer> positions) {
+			positions.put(node, positions.size());
+			for (FibonacciHeap.HeapNode child = node.firstChild(); child != null && !child.isSentinel(); child = child.right) {
+				addPreorder(child, positions);
+			}
+		}
+	}
+
+	static private class TestDurableHeap extends Test {
+
+		public TestDurableHeap() {
+			super("Check that DurableFibonacciHeap restores its nodes from snapshots and a log cut by a crash");
+		}
+
+		@Override
+		protected void test() {
+			Path dir = null;
+			try {
+				dir = Files.createTempDirectory("durable");
+				Map<Long, Integer> expected = new HashMap<>(); // key of every live id
+				Random rnd = new Random(16);
+				DurableFibonacciHeap heap = open(dir);
+				randomOperations(heap, expected, rnd, 3000);
+				heap.close();
+
+				heap = open(dir);
+				if (!check(heap, expected, "after close")) {
+					return;
+				}
+
+				// operations after the last sync are lost in a crash, which leaves the heap unclosed
+				randomOperations(heap, expected, rnd, 1000);
+				heap.sync();
+				Map<Long, Integer> synced = new HashMap<>(expected);
+				randomOperations(heap, expected, rnd, 10);
+				// and a write torn in the middle leaves garbage at the end of the log
+				Files.write(dir.resolve("heap.log"), new byte[] { 7, 0, 0, 0, 1, 2 }, StandardOpenOption.APPEND);
+				heap = open(dir);
+				if (!check(heap, synced, "after a crash")) {
+					return;
+				}
+				heap.close();
+
+				// with equal keys the replay must delete the node deleteMin deleted, not just one with its key
+				dir.resolve("heap.log").toFile().delete();
+				dir.resolve("heap.snapshot").toFile().delete();
+				heap = open(dir);
+				expected.clear();
+				long first = heap.insert(5);
+				long second = heap.insert(5);
+				heap.snapshot();
+				long deleted = heap.findMinId();
+				heap.deleteMin();
+				long left = deleted == first ? second : first;
+				heap.decreaseKey(left, 4);
+				expected.put(left, 1);
+				heap.close();
+				heap = open(dir);
+				if (!check(heap, expected, "after deleteMin with equal keys")) {
+					return;
+				}
+				heap.close();
+			} catch (IOException e) {
+				setFailed(e);
+			} finally {
+				if (dir != null) {
+					for (String name : new String[] { "heap.log", "heap.snapshot", "heap.snapshot.tmp", "" }) {
+						dir.resolve(name).toFile().delete();
+					}
+				}
+			}
+		}
+
+		private static DurableFibonacciHeap open(Path dir) throws IOException {
+			return new DurableFibonacciHeap(dir, DurableFibonacciHeap.SyncPolicy.BATCH, 16, 500);
+		}
+
+		private static void randomOperations(DurableFibonacciHeap heap, Map<Long, Integer> expected, Random rnd,
+				int count) throws IOException {
+			for (int i = 0; i < count; i++) {
+				int op = rnd.nextInt(10);
+				if (op < 5 || expected.isEmpty()) {
+					int key = rnd.nextInt(100000);
+					expected.put(heap.insert(key), key);
+				} else if (op < 7) {
+					long id = heap.findMinId();
+					heap.deleteMin();
+					expected.remove(id);
+				} else {
+					long id = expected.keySet().iterator().next();
+					if (op < 8) {
+						heap.delete(id);
+						expected.remove(id);
+					} else {
+						int delta = rnd.nextInt(expected.get(id) + 1);
+						heap.decreaseKey(id, delta);
+						expected.put(id, expected.get(id) - delta);
+					}
+				}
+			}
+		}
+
+		private boolean check(DurableFibonacciHeap heap, Map<Long, Integer> expected, String when) {
+			if (heap.size() != expected.size()) {
+				setFailed(when + ": size " + heap.size() + " instead of " + expected.size());
+				return false;
+			}
+			for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+				if (heap.getKey(entry.getKey()) != entry.getValue()) {
+					setFailed(when + ": key of " + entry.getKey() + " is " + heap.getKey(entry.getKey()));
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	static private class TestMeldableHeaps extends Test {
+
+		public TestMeldableHeaps() {
+			super("Check FibonacciHeap, PairingHeap and RankPairingHeap through MeldableHeap");
+		}
+
+		@Override
+		protected void test() {
+			if (check("FibonacciHeap", FibonacciHeap::new) && check("PairingHeap", PairingHeap::new)) {
+				check("RankPairingHeap", RankPairingHeap::new);
+			}
+		}
+
+		/**
+		 * runs melds, decreases, deletes and deleteMins against an array of the expected keys
+		 */
+		private <N extends MeldableHeap.Node, H extends MeldableHeap<N, H>> boolean check(String name,
+				Supplier<H> factory) {
+			int[] keys = createValues(0);
+			H heap = factory.get();
+			H other = factory.get();
+			List<N> nodes = new ArrayList<>();
+			Map<N, Integer> indexes = new HashMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				N node = (i % 2 == 0 ? heap : other).insert(keys[i]);
+				nodes.add(node);
+				indexes.put(node, i);
+			}
+			// pull the trees apart before the meld, so it joins two heaps that have structure
+			for (int i = 0; i < 100; i++) {
+				keys[indexes.remove(heap.findMin())] = -1;
+				heap.deleteMin();
+			}
+			heap.meld(other);
+			if (heap.size() != keys.length - 100) {
+				setFailed(name + ": size after meld is " + heap.size() + " instead of " + (keys.length - 100));
+				return false;
+			}
+
+			Random rnd = new Random(17);
+			for (int round = 0; round < 20; round++) {
+				for (int j = 0; j < 1000; j++) {
+					int i = rnd.nextInt(keys.length);
+					if (keys[i] <= 0) {
+						continue;
+					}
+					int delta = 1 + rnd.nextInt(keys[i]);
+					heap.decreaseKey(nodes.get(i), delta);
+					keys[i] -= delta;
+				}
+				int i = rnd.nextInt(keys.length);
+				if (keys[i] >= 0) {
+					heap.delete(nodes.get(i));
+					indexes.remove(nodes.get(i));
+					keys[i] = -1;
+				}
+				for (int j = 0; j < 50; j++) {
+					N min = heap.findMin();
+					int expected = Integer.MAX_VALUE;
+					for (int key : keys) {
+						if (key >= 0 && key < expected) {
+							expected = key;
+						}
+					}
+					if (min.getKey() != expected) {
+						setFailed(name + ": findMin returned " + min.getKey() + " instead of " + expected);
+						return false;
+					}
+					keys[indexes.remove(min)] = -1;
+					heap.deleteMin();
+				}
+			}
+
+			int[] remaining = Arrays.stream(keys).filter(key -> key >= 0).sorted().toArray();
+			if (heap.size() != remaining.length) {
+				setFailed(name + ": size is " + heap.size() + " instead of " + remaining.length);
+				return false;
+			}
+			for (int expected : remaining) {
+				int key = heap.findMin().getKey();
+				if (key != expected) {
+					setFailed(name + ": deleteMin order has " + key + " instead of " + expected);
+					return false;
+				}
+				heap.deleteMin();
+			}
+			if (!heap.empty() || heap.findMin() != null) {
+				setFailed(name + ": heap isn't empty after deleting every key");
+				return false;
+			}
+			return true;
+		}
+	}
+
+	static private class TestIncrementalConsolidation extends Test {
+
+		public TestIncrementalConsolidation() {
+			super("Check incremental consolidation keeps the root list short through bursts, cuts and melds");
+		}
+
+		@Override
+		protected void test() {
+			int[] keys = createValues(0);
+			FibonacciHeap heap = new FibonacciHeap();
+			heap.setIncrementalConsolidation(true);
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[keys.length];
+			Map<FibonacciHeap.HeapNode, Integer> indexes = new HashMap<>();
+			boolean[] inHeap = new boolean[keys.length];
+
+			Random rnd = new Random(18);
+			int inserted = 0;
+			for (int round = 0; round < 10; round++) {
+				// a burst of inserts, and every fourth round a meld with a heap of its own
+				FibonacciHeap target = heap;
+				if (round % 4 == 3) {
+					target = new FibonacciHeap();
+					target.setIncrementalConsolidation(true);
+				}
+				for (int j = 0; j < 1000; j++, inserted++) {
+					nodes[inserted] = target.insert(keys[inserted]);
+					indexes.put(nodes[inserted], inserted);
+					inHeap[inserted] = true;
+				}
+				if (target != heap) {
+					heap.meld(target);
+				}
+				int roots = 0;
+				for (FibonacciHeap.HeapNode root : heap) {
+					roots++;
+				}
+				if (roots > 64) {
+					setFailed("there are " + roots + " roots after a burst of inserts");
+					return;
+				}
+
+				for (int j = 0; j < 300; j++) {
+					int i = rnd.nextInt(inserted);
+					if (inHeap[i] && keys[i] > 0) {
+						int delta = 1 + rnd.nextInt(keys[i]);
+						heap.decreaseKey(nodes[i], delta);
+						keys[i] -= delta;
+					}
+				}
+				int i = rnd.nextInt(inserted);
+				if (inHeap[i]) {
+					heap.delete(nodes[i]);
+					inHeap[i] = false;
+				}
+				for (int j = 0; j < 50; j++) {
+					int expected = Integer.MAX_VALUE;
+					for (int k = 0; k < inserted; k++) {
+						if (inHeap[k] && keys[k] < expected) {
+							expected = keys[k];
+						}
+					}
+					FibonacciHeap.HeapNode min = heap.findMin();
+					if (min.getKey() != expected) {
+						setFailed("findMin returned " + min.getKey() + " instead of " + expected);
+						return;
+					}
+					inHeap[indexes.get(min)] = false;
+					heap.deleteMin();
+				}
+				if (!checkPotential(heap)) {
+					return;
+				}
+			}
+
+			// drain half in a batch, and the rest after turning the mode off
+			int[] expected = new int[heap.size()];
+			for (int i = 0, j = 0; i < inserted; i++) {
+				if (inHeap[i]) {
+					expected[j++] = keys[i];
+				}
+			}
+			Arrays.sort(expected);
+			int[] out = new int[expected.length];
+			int half = expected.length / 2;
+			heap.deleteMin(half, out);
+			heap.setIncrementalConsolidation(false);
+			int deleted = half;
+			while (!heap.empty()) {
+				out[deleted++] = heap.findMin().getKey();
+				heap.deleteMin();
+			}
+			if (!Arrays.equals(out, expected)) {
+				setFailed("the keys didn't come out in order");
+			}
+		}
+	}
+
+	static private class TestMeldOwnership extends Test {
+
+		public TestMeldOwnership() {
+			super("Check meld empties the donor for reuse and the ownership check follows melded nodes");
+		}
+
+		@Override
+		protected void test() {
+			FibonacciHeap heap = new FibonacciHeap();
+			FibonacciHeap donor = new FibonacciHeap();
+			FibonacciHeap third = new FibonacciHeap();
+			heap.setOwnershipCheck(true);
+			donor.setOwnershipCheck(true);
+			FibonacciHeap.HeapNode a = heap.insert(10);
+			FibonacciHeap.HeapNode b = donor.insert(20);
+			FibonacciHeap.HeapNode c = third.insert(30);
+			donor.insert(5);
+			donor.deleteMin();
+
+			if (!expectRejected(heap, b, "a node of another heap")) {
+				return;
+			}
+			third.meld(donor);
+			heap.meld(third);
+			if (!donor.empty() || donor.findMin() != null || donor.potential() != 0 || !third.empty()) {
+				setFailed("the donors weren't left empty");
+				return;
+			}
+			if (!heap.contains(a) || !heap.contains(b) || !heap.contains(c) || donor.contains(b)) {
+				setFailed("contains doesn't follow the melded nodes");
+				return;
+			}
+			if (!expectRejected(donor, b, "a node that was melded away")) {
+				return;
+			}
+			heap.decreaseKey(b, 19);
+
+			// the donor is reused, and its new nodes are its own
+			FibonacciHeap.HeapNode d = donor.insert(7);
+			donor.insert(3);
+			donor.deleteMin();
+			if (donor.size() != 1 || donor.findMin() != d || heap.contains(d) || !donor.contains(d)) {
+				setFailed("the reused donor holds the wrong nodes");
+				return;
+			}
+			if (heap.findMin() != b || heap.size() != 3) {
+				setFailed("findMin returned " + heap.findMin().getKey() + " in a heap of " + heap.size());
+				return;
+			}
+			heap.deleteMin();
+			if (heap.contains(b) || !expectRejected(heap, b, "a deleted node")) {
+				return;
+			}
+			if (!expectRejected(heap, new FibonacciHeap.HeapNode(1), "a node of no heap")) {
+				return;
+			}
+			heap.delete(c);
+			if (heap.size() != 1 || heap.findMin() != a || !checkPotential(heap)) {
+				setFailed("the heap holds the wrong nodes after delete");
+			}
+		}
+
+		private boolean expectRejected(FibonacciHeap heap, FibonacciHeap.HeapNode node, String what) {
+			try {
+				heap.decreaseKey(node, 1);
+			} catch (IllegalArgumentException e) {
+				return true;
+			}
+			setFailed("decreaseKey accepted " + what);
+			return false;
+		}
+	}
+
+	static private class TestNodePool extends Test {
+
+		public TestNodePool() {
+			super("Check the node pool reuses deleted nodes and the generation catches stale handles");
+		}
+
+		@Override
+		protected void test() {
+			FibonacciHeap heap = new FibonacciHeap();
+			heap.setNodePoolCapacity(64);
+			FibonacciHeap.HeapNode leaf = heap.insert(5);
+			if (leaf.iterator().hasNext() || leaf.firstChild() != null) {
+				setFailed("a new node has children");
+				return;
+			}
+			int generation = leaf.getGeneration();
+			heap.deleteMin();
+			FibonacciHeap.HeapNode reused = heap.insert(8);
+			if (reused != leaf || reused.getGeneration() == generation || reused.getKey() != 8) {
+				setFailed("insert didn't reuse the deleted node");
+				return;
+			}
+			if (heap.contains(leaf, generation) || !heap.contains(reused, reused.getGeneration())) {
+				setFailed("contains doesn't tell the generations apart");
+				return;
+			}
+			try {
+				heap.decreaseKey(leaf, generation, 1);
+				setFailed("decreaseKey accepted a stale handle");
+				return;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			heap.deleteMin();
+
+			// churn against an array of the expected keys, with handles checked by their generation
+			int[] keys = createValues(0);
+			int n = keys.length / 2;
+			FibonacciHeap.HeapNode[] nodes = heap.insertAll(keys, 0, n, true);
+			int[] generations = new int[keys.length];
+			Map<FibonacciHeap.HeapNode, Integer> indexes = new HashMap<>();
+			for (int i = 0; i < n; i++) {
+				indexes.put(nodes[i], i);
+				generations[i] = nodes[i].getGeneration();
+			}
+			nodes = Arrays.copyOf(nodes, keys.length);
+			boolean[] inHeap = new boolean[keys.length];
+			Arrays.fill(inHeap, 0, n, true);
+
+			Random rnd = new Random(20);
+			for (int round = 0; round < 10; round++) {
+				for (int j = 0; j < 100; j++) {
+					int expected = Integer.MAX_VALUE;
+					for (int k = 0; k < n; k++) {
+						if (inHeap[k] && keys[k] < expected) {
+							expected = keys[k];
+						}
+					}
+					FibonacciHeap.HeapNode min = heap.findMin();
+					if (min.getKey() != expected) {
+						setFailed("findMin returned " + min.getKey() + " instead of " + expected);
+						return;
+					}
+					inHeap[indexes.remove(min)] = false;
+					heap.deleteMin();
+				}
+				for (int j = 0; j < 100; j++) {
+					int i = rnd.nextInt(n);
+					if (inHeap[i] && keys[i] > 0) {
+						int delta = 1 + rnd.nextInt(keys[i]);
+						heap.decreaseKey(nodes[i], generations[i], delta);
+						keys[i] -= delta;
+					} else if (!inHeap[i] && heap.contains(nodes[i], generations[i])) {
+						setFailed("a deleted handle is still in the heap");
+						return;
+					}
+				}
+				for (int j = 0; j < 100; j++, n++) {
+					nodes[n] = heap.insert(keys[n]);
+					generations[n] = nodes[n].getGeneration();
+					indexes.put(nodes[n], n);
+					inHeap[n] = true;
+				}
+				if (!checkPotential(heap)) {
+					return;
+				}
+			}
+			heap.setNodePoolCapacity(0);
+			heap.insert(1);
+			if (heap.findMin().getGeneration() != 0) {
+				setFailed("insert reused a node with the pool turned off");
+			}
+		}
+	}
+
+	static private class TestIndexedHeap extends Test {
+		public TestIndexedHeap() {
+			super("Check IndexedFibonacciHeap deleteMin order by id after decreaseKeyTo, delete and clear");
+		}
+
+		@Override
+		protected void test() {
+			int[] vals = createValues(1000);
+			long[] keys = new long[vals.length];
+			IndexedFibonacciHeap heap = new IndexedFibonacciHeap(vals.length);
+
+			for (int id = 0; id < vals.length; id++) {
+				heap.insert(id, vals[id]);
+				keys[id] = vals[id];
+			}
+			try {
+				heap.insert(3, 0);
+				setFailed("inserting an id twice did not throw");
+				return;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			if (!checkMissing(new IndexedFibonacciHeap(4), 2) || !checkMissing(heap, vals.length)) {
+				return;
+			}
+			long removed = keys[heap.findMin()];
+			keys[heap.findMin()] = Long.MAX_VALUE;
+			heap.deleteMin();
+
+			for (int id = 0; id < keys.length; id++) {
+				if (keys[id] == Long.MAX_VALUE) {
+					continue;
+				}
+				if (id % 5 == 1) {
+					heap.delete(id);
+					keys[id] = Long.MAX_VALUE;
+				} else if (id % 3 == 0) {
+					keys[id] -= id % 7 * 1000;
+					heap.decreaseKeyTo(id, keys[id]);
+				}
+			}
+			// a deleted id can come back
+			int again = 1;
+			heap.insert(again, removed);
+			keys[again] = removed;
+
+			for (int id = 0; id < keys.length; id++) {
+				boolean inHeap = keys[id] != Long.MAX_VALUE;
+				if (heap.contains(id) != inHeap) {
+					setFailed("contains(" + id + ") is " + !inHeap);
+					return;
+				}
+				if (inHeap && heap.keyOf(id) != keys[id]) {
+					setFailed("key of " + id + " is " + heap.keyOf(id) + " instead of " + keys[id]);
+					return;
+				}
+			}
+
+			int half = heap.size() / 2;
+			long last = Long.MIN_VALUE;
+			for (int i = 0; i < half; i++) {
+				int id = heap.findMin();
+				if (heap.keyOf(id) < last || heap.keyOf(id) != keys[id]) {
+					setFailed("findMin returned id " + id + " with key " + heap.keyOf(id) + " after " + last);
+					return;
+				}
+				last = keys[id];
+				keys[id] = Long.MAX_VALUE;
+				heap.deleteMin();
+				if (heap.contains(id)) {
+					setFailed("deleteMin did not remove id " + id);
+					return;
+				}
+			}
+			for (int id = 0; id < keys.length; id++) {
+				if (keys[id] != Long.MAX_VALUE && keys[id] < last) {
+					setFailed("key " + keys[id] + " of id " + id + " was skipped");
+					return;
+				}
+			}
+
+			heap.clear();
+			if (!heap.empty() || heap.findMin() != IndexedFibonacciHeap.NONE) {
+				setFailed("Heap is not empty after clear");
+				return;
+			}
+			for (int id = 0; id < keys.length; id++) {
+				if (heap.contains(id)) {
+					setFailed("id " + id + " is still in the heap after clear");
+					return;
+				}
+			}
+			heap.insert(vals.length - 1, 7);
+			if (heap.findMin() != vals.length - 1 || heap.size() != 1) {
+				setFailed("insert after clear did not make a heap of one id");
+			}
+		}
+
+		/**
+		 * checks that keyOf, decreaseKeyTo and delete of an id that isn't in the heap throw, and change nothing
+		 */
+		private boolean checkMissing(IndexedFibonacciHeap heap, int id) {
+			int size = heap.size();
+			Class<?> expected = id < heap.capacity() ? NoSuchElementException.class : IndexOutOfBoundsException.class;
+			Runnable[] calls = { () -> heap.keyOf(id), () -> heap.decreaseKeyTo(id, -5), () -> heap.delete(id) };
+			for (Runnable call : calls) {
+				try {
+					call.run();
+					setFailed("a call on id " + id + ", which isn't in the heap, did not throw");
+					return false;
+				} catch (RuntimeException e) {
+					if (e.getClass() != expected) {
+						setFailed(e);
+						return false;
+					}
+				}
+			}
+			if (heap.size() != size || heap.contains(id)) {
+				setFailed("calls on id " + id + ", which isn't in the heap, changed the heap");
+				return false;
+			}
+			if (id < heap.capacity()) {
+				heap.insert(id, 3);
+				if (heap.keyOf(id) != 3) {
+					setFailed("key of " + id + " is " + heap.keyOf(id) + " instead of 3");
+					return false;
+				}
+				heap.delete(id);
+			}
+			return true;
+		}
+	}
+
+	static private class TestKeyChanges extends Test {
+		public TestKeyChanges() {
+			super("Check decreaseKeyTo, increaseKeyTo and delete in plain, lazy and incremental mode");
+		}
+
+		@Override
+		protected void test() {
+			for (int mode = 0; mode < 3; mode++) {
+				if (!test(mode)) {
+					return;
+				}
+			}
+		}
+
+		private boolean test(int mode) {
+			int[] vals = createValues(1000);
+			int[] keys = vals.clone();
+			boolean[] deleted = new boolean[vals.length];
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[vals.length];
+			FibonacciHeap heap = new FibonacciHeap();
+			heap.setLazyDecreaseKey(mode == 1);
+			heap.setIncrementalConsolidation(mode == 2);
+			Map<FibonacciHeap.HeapNode, Integer> index = new HashMap<>();
+			for (int i = 0; i < vals.length; i++) {
+				nodes[i] = heap.insert(vals[i]);
+				index.put(nodes[i], i);
+			}
+			int first = index.get(heap.findMin());
+			deleted[first] = true;
+			heap.deleteMin();
+
+			try {
+				int i = first == 0 ? 1 : 0;
+				heap.decreaseKeyTo(nodes[i], keys[i] + 1);
+				setFailed("decreaseKeyTo a bigger key did not throw");
+				return false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+
+			Random rnd = new Random(mode);
+			for (int i = 0; i < vals.length; i++) {
+				if (deleted[i]) {
+					continue;
+				}
+				switch (i % 4) {
+				case 0:
+					if (mode == 0 && nodes[i] != heap.findMin()) {
+						long consolidates = heap.metrics().consolidates();
+						heap.delete(nodes[i]);
+						if (heap.metrics().consolidates() != consolidates) {
+							setFailed("delete of a node that isn't the minimum consolidated");
+							return false;
+						}
+					} else {
+						heap.delete(nodes[i]);
+					}
+					deleted[i] = true;
+					break;
+				case 1:
+					keys[i] -= rnd.nextInt(50_000);
+					heap.decreaseKeyTo(nodes[i], keys[i]);
+					break;
+				case 2:
+					keys[i] += rnd.nextInt(50_000);
+					heap.increaseKeyTo(nodes[i], keys[i]);
+					break;
+				default:
+					// push the current minimum back, which needs a new minimum
+					int m = index.get(heap.findMin());
+					keys[m] += 1 + rnd.nextInt(50_000);
+					heap.increaseKey(nodes[m], keys[m] - nodes[m].getKey());
+				}
+			}
+			if (!checkPotential(heap)) {
+				return false;
+			}
+
+			int[] expected = new int[heap.size()];
+			int n = 0;
+			for (int i = 0; i < keys.length; i++) {
+				if (!deleted[i]) {
+					if (n == expected.length) {
+						setFailed("size() says " + expected.length + " but more nodes are left");
+						return false;
+					}
+					expected[n++] = keys[i];
+				}
+			}
+			if (n != expected.length) {
+				setFailed("size is " + n + " but size() says " + expected.length);
+				return false;
+			}
+			Arrays.sort(expected);
+			for (int i = 0; i < expected.length; i++) {
+				if (heap.findMin().getKey() != expected[i]) {
+					setFailed("mode " + mode + ": min is " + expected[i] + " but findMin() says "
+							+ heap.findMin().getKey());
+					return false;
+				}
+				heap.deleteMin();
+			}
+			if (!heap.empty()) {
+				setFailed("Heap is not empty after deleting all nodes");
+				return false;
+			}
+			return true;
+		}
+	}
+
+	static private class TestSortedIterator extends Test {
+		public TestSortedIterator() {
+			super("Check sortedIterator and sortedStream return the keys in order and leave the heap as it is");
+		}
+
+		@Override
+		protected void test() {
+			FibonacciHeap empty = new FibonacciHeap();
+			if (empty.sortedIterator().hasNext() || empty.sortedStream().count() != 0) {
+				setFailed("sorted iteration of an empty heap returned keys");
+				return;
+			}
+			try {
+				empty.sortedIterator().nextInt();
+				setFailed("nextInt past the end did not throw");
+				return;
+			} catch (NoSuchElementException e) {
+				// expected
+			}
+
+			for (boolean lazy : new boolean[] { false, true }) {
+				int[] vals = createValues(1000);
+				FibonacciHeap heap = new FibonacciHeap();
+				heap.setLazyDecreaseKey(lazy);
+				FibonacciHeap.HeapNode[] nodes = heap.insertAll(vals, 0, vals.length);
+				heap.deleteMin();
+				for (int i = 0; i < nodes.length; i += 7) {
+					if (heap.contains(nodes[i])) {
+						heap.decreaseKey(nodes[i], i);
+					}
+				}
+				// a few roots that aren't consolidated
+				heap.insert(-1);
+				heap.insert(vals[0]);
+
+				int[] expected = new int[heap.size()];
+				PrimitiveIterator.OfInt it = heap.sortedIterator();
+				int n = 0;
+				while (it.hasNext()) {
+					if (n == expected.length) {
+						setFailed("sortedIterator returned more than " + expected.length + " keys");
+						return;
+					}
+					expected[n++] = it.nextInt();
+				}
+				if (n != expected.length) {
+					setFailed("sortedIterator returned " + n + " keys out of " + expected.length);
+					return;
+				}
+				int[] top = heap.sortedStream().limit(10).toArray();
+				if (!Arrays.equals(top, Arrays.copyOf(expected, 10))) {
+					setFailed("sortedStream().limit(10) is " + Arrays.toString(top));
+					return;
+				}
+				if (!checkPotential(heap)) {
+					return;
+				}
+				for (int i = 0; i < expected.length; i++) {
+					if (heap.findMin().getKey() != expected[i]) {
+						setFailed("key " + i + " of sortedIterator is " + expected[i] + " but deleteMin gives "
+								+ heap.findMin().getKey());
+						return;
+					}
+					heap.deleteMin();
+				}
+				if (!heap.empty()) {
+					setFailed("Heap is not empty after deleting all nodes");
+					return;
+				}
+			}
+		}
+	}
+
+	static private class TestParallelBuild extends Test {
+		public TestParallelBuild() {
+			super("Check fromArrayParallel builds a consolidated heap of the keys, with their nodes");
+		}
+
+		@Override
+		protected void test() {
+			if (!FibonacciHeap.fromArrayParallel(new int[0]).empty()) {
+				setFailed("heap of no keys is not empty");
+				return;
+			}
+			Random rnd = new Random();
+			int[] keys = new int[200_000];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = rnd.nextInt(keys.length);
+			}
+			FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[keys.length];
+			ForkJoinPool pool = new ForkJoinPool(4);
+			FibonacciHeap heap;
+			try {
+				heap = FibonacciHeap.fromArrayParallel(keys, nodes, pool);
+			} finally {
+				pool.shutdown();
+			}
+			if (heap.size() != keys.length) {
+				setFailed("size is " + heap.size() + " instead of " + keys.length);
+				return;
+			}
+			for (int i = 0; i < keys.length; i++) {
+				if (nodes[i].getKey() != keys[i] || !heap.contains(nodes[i])) {
+					setFailed("node " + i + " doesn't hold key " + keys[i] + " in the heap");
+					return;
+				}
+			}
+			for (int trees : heap.countersRep()) {
+				if (trees > 1) {
+					setFailed("the heap is not consolidated: " + Arrays.toString(heap.countersRep()));
+					return;
+				}
+			}
+			if (!checkPotential(heap)) {
+				return;
+			}
+			heap.delete(nodes[0]);
+			heap.decreaseKey(nodes[1], 1);
+			keys[0] = Integer.MAX_VALUE;
+			keys[1] -= 1;
+
+			int[] expected = Arrays.copyOf(keys, keys.length);
+			Arrays.sort(expected);
+			for (int i = 0; i < expected.length - 1; i++) {
+				if (heap.findMin().getKey() != expected[i]) {
+					setFailed("min is " + expected[i] + " but findMin() says " + heap.findMin().getKey());
+					return;
+				}
+				heap.deleteMin();
+			}
+			if (!heap.empty()) {
+				setFailed("Heap is not empty after deleting all nodes");
+			}
+		}
+	}
+
+	static private class StatisticsTest extends Test {
+
+		public StatisticsTest() {
+			super("Perform needed set of instructions and print the statistics");
+		}
+
+		@Override
+		protected void test() {
+			System.out.println("Sequence 1:");
+			try {
+				sequence1();
+			} catch (Exception e) {
+				setFailed(e);
+			}
+			System.out.println("*********************************");
+			System.out.println("Sequence 2:");
+			try {
+				sequence2();
+			} catch (Exception e) {
+				setFailed(e);
+			}
+		}
+
+		private void sequence1() {
+			for (int i = 0; i < 3; i++) {
+				int m = (i + 1) * 1000;
+				System.out.println("m = " + m);
+				int[] vals = new int[m];
+				for (int j = 0; j < m; j++) {
+					vals[j] = m - j;
+				}
+
+				FibonacciHeap heap = new FibonacciHeap();
+				long startTime = System.nanoTime();
+				for (int val : vals) {
+					heap.insert(val);
+				}
+				long endTime = System.nanoTime();
+				double duration = (endTime - startTime) / 1000000.0; // time in
+																		// milliseconds
+
+				System.out.println("Run-time duration: " + String.valueOf(duration));
+				System.out.println("totalLinks: " + heap.metrics().links());
+				System.out.println("totalCuts: " + heap.metrics().cuts());
+				System.out.println("Potential: " + heap.potential());
+			}
+		}
+
+		private void sequence2() {
+			for (int i = 0; i < 3; i++) {
+				int m = (i + 1) * 1000;
+				System.out.println("m = " + m);
+				int[] vals = new int[m];
+				for (int j = 0; j < m; j++) {
+					vals[j] = m - j;
+				}
+
+				FibonacciHeap heap = new FibonacciHeap();
+				long startTime = System.nanoTime();
+				for (int val : vals) {
+					heap.insert(val);
+				}
+				for (int j = 0; j < m / 2; j++) {
+					heap.deleteMin();
+				}
+				long endTime = System.nanoTime();
+				double duration = (endTime - startTime) / 1000000.0; // time in
+																		// milliseconds
+
+				System.out.println("Run-time duration: " + String.valueOf(duration));
+				System.out.println("totalLinks: " + heap.metrics().links());
+				System.out.println("totalCuts: " + heap.metrics().cuts());
+				System.out.println("Potential: " + heap.potential());
+			}
+		}
+	}
+
+	public static void main(String[] argv) {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Test[] tests = { new TestMeld1(), new TestMeld2(), new TestMeld3(), new TestMeld4(), new TestMeld5(),
+				new TestInsert(), new TestFindMin1(), new TestFindMin2(), new TestDeleteMin(), new TestDelete(),
+				new TestDecreaseKey(), new TestPotential(), new TestEmpty(), new TestIntHeap(),
+				new TestLongDoubleHeaps(), new TestKeyedHeap(), new TestDeepChain(),
+				new TestMetrics(), new TestInsertAll(), new TestDeleteMinBatch(),
+				new TestConcurrentHeap(), new TestConcurrentFailure(), new TestShardedHeap(), new TestLazyDecreaseKey(),
+				new TestGraphSearch(), new TestMappedHeap(), new TestSnapshot(),
+				new TestDurableHeap(), new TestMeldableHeaps(), new TestIncrementalConsolidation(),
+				new TestMeldOwnership(), new TestNodePool(), new TestIndexedHeap(), new TestKeyChanges(),
+				new TestSortedIterator(), new TestParallelBuild(), new StatisticsTest() };
+
+		for (Test test : tests) {
+			try {
+				executor.submit(test).get(5, TimeUnit.SECONDS);
+			} catch (TimeoutException e) {
+				test.setFailed("Timed out. Infinite loop");
+			} catch (Exception e) {
+				System.out.println(e.getMessage());
+				System.exit(1);
+			}
+		}
+		executor.shutdown();
+
+		int failed = 0, i = 0;
+		for (Test test : tests) {
+			if (test.failed()) {
+				++failed;
+			}
+			System.out.printf("Test %2d | " + test + "\n", ++i);
+		}
+		System.out.println("Failed " + failed + " Out of " + tests.length + " tests");
+		System.out.printf("Grade:\n%.0f\n", 100 * (1 - (float) failed / tests.length));
+		System.exit(failed == 0 ? 0 : 1);
+	}
+}
\ No newline at end of file